@@ -0,0 +1,87 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import com.example.codec.BinaryCodec;
+import com.example.codec.BinaryMessageConverter;
+import com.example.notificationservice.config.RabbitMQConfig;
+import com.example.user.event.UserCreatedEvent;
+
+/**
+ * Message conversion cost for one UserCreatedEvent on each side of RabbitMQ, as JSON
+ * (Jackson2JsonMessageConverter, user.events.codec=json) and with the binary codec
+ * (user.events.codec=binary): toMessage as configured in the user service, fromMessage with the
+ * notification service's converter, which maps the user service's __TypeId__ onto its own event
+ * class and picks the format by content type. Message body sizes are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventConversionBenchmark {
+
+    private MessageConverter producer;
+    private MessageConverter binaryProducer;
+    private MessageConverter consumer;
+    private UserCreatedEvent event;
+    private Message message;
+    private Message binaryMessage;
+
+    @Setup
+    public void setUp() {
+        producer = new Jackson2JsonMessageConverter();
+        binaryProducer = new BinaryMessageConverter(new BinaryCodec(512), new Jackson2JsonMessageConverter(), payload -> true);
+        consumer = new RabbitMQConfig().messageConverter();
+        event = new UserCreatedEvent("Jane Doe", "jane.doe@example.com");
+        message = producer.toMessage(event, new MessageProperties());
+        binaryMessage = binaryProducer.toMessage(event, new MessageProperties());
+        System.out.printf("%nMessage body: json=%d binary=%d bytes%n", message.getBody().length, binaryMessage.getBody().length);
+    }
+
+    @Benchmark
+    public Message toMessage() {
+        return producer.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object fromMessage() {
+        return consumer.fromMessage(message);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return consumer.fromMessage(producer.toMessage(event, new MessageProperties()));
+    }
+
+    @Benchmark
+    public Message binaryToMessage() {
+        return binaryProducer.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object binaryFromMessage() {
+        return consumer.fromMessage(binaryMessage);
+    }
+
+    @Benchmark
+    public Object binaryRoundTrip() {
+        return consumer.fromMessage(binaryProducer.toMessage(event, new MessageProperties()));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.MethodRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+
+import com.example.notificationservice.config.RabbitMQConfig;
+import com.example.notificationservice.controller.SSEController;
+import com.example.notificationservice.event.UserCreatedEvent;
+import com.example.notificationservice.sse.OverflowPolicy;
+import com.example.notificationservice.sse.SseFanout;
+import com.example.notificationservice.sse.SubscriptionFilter;
+import com.rabbitmq.client.AMQP;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Consumer throughput of the notification service's user.created listener, one message per
+ * listener call (the default) vs. the batch listener (notification.listener.batch-enabled), in
+ * messages per second. The listener container is a real SimpleMessageListenerContainer built by
+ * the service's own container factories, with its converter and consumer lag recorder; the broker
+ * is a {@link StubRabbitBroker}. The numbers cover the container loop, JSON conversion, the
+ * listener call, SSE fan-out to the connected clients (as in {@link SseFanoutBenchmark}) and the
+ * acks, but no network: against a real broker, batching also saves the ack round trips.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ListenerThroughputBenchmark {
+
+    private static final int MESSAGES = 10_000;
+
+    @Param({"single", "batch"})
+    public String mode;
+
+    @Param({"10", "1000"})
+    public int clients;
+
+    private StubRabbitBroker broker;
+    private SimpleMessageListenerContainer container;
+    private List<byte[]> bodies;
+    private AMQP.BasicProperties properties;
+
+    /** Mirrors the service's UserEventListener. */
+    public static class SingleListener {
+        private final SSEController sseController;
+
+        SingleListener(SSEController sseController) {
+            this.sseController = sseController;
+        }
+
+        public void handleUserCreatedEvent(UserCreatedEvent event) {
+            sseController.sendEventToClients(SSEController.USER_CREATED, event.getEmail(), event);
+        }
+    }
+
+    /** Mirrors the service's BatchUserEventListener. */
+    public static class BatchListener {
+        private final SSEController sseController;
+
+        BatchListener(SSEController sseController) {
+            this.sseController = sseController;
+        }
+
+        public void handleUserCreatedEvents(List<UserCreatedEvent> events) {
+            sseController.sendEventsToClients(SSEController.USER_CREATED, events, UserCreatedEvent::getEmail);
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        SseFanout fanout = new SseFanout(new SimpleMeterRegistry(), Jackson2ObjectMapperBuilder.json().build(),
+            256, OverflowPolicy.DROP_OLDEST, 15_000, 0, 10_000, 300_000);
+        for (int i = 0; i < clients; i++) {
+            SubscriptionFilter filter = i % 2 == 0
+                ? SubscriptionFilter.ALL
+                : new SubscriptionFilter(Set.of(), "user" + i + "@example.com", null);
+            fanout.subscribe(filter, null, new SseFanoutBenchmark.DiscardingSseEmitter());
+        }
+        SSEController sseController = new SSEController(fanout);
+
+        // Messages as the user service's outbox relay sends them.
+        Jackson2JsonMessageConverter producer = new Jackson2JsonMessageConverter();
+        bodies = new ArrayList<>(MESSAGES);
+        MessageProperties messageProperties = null;
+        for (int i = 0; i < MESSAGES; i++) {
+            Message message = producer.toMessage(
+                new com.example.user.event.UserCreatedEvent("User " + i, "user" + i + "@example.com"), new MessageProperties());
+            bodies.add(message.getBody());
+            messageProperties = message.getMessageProperties();
+        }
+        messageProperties.setTimestamp(new Date());
+        properties = new DefaultMessagePropertiesConverter().fromMessageProperties(messageProperties, "UTF-8");
+
+        broker = new StubRabbitBroker();
+        RabbitMQConfig config = new RabbitMQConfig();
+        SimpleRabbitListenerContainerFactoryConfigurer configurer =
+            new SimpleRabbitListenerContainerFactoryConfigurer(new RabbitProperties());
+        MessagePostProcessor lagRecorder = config.consumerLagRecorder(new SimpleMeterRegistry());
+
+        MethodRabbitListenerEndpoint endpoint = new MethodRabbitListenerEndpoint();
+        SimpleRabbitListenerContainerFactory factory;
+        if (mode.equals("batch")) {
+            // notification.listener.batch-size, batch-window-ms and the default prefetch
+            factory = config.batchListenerContainerFactory(configurer, broker.connectionFactory(), 100, 50, 250, lagRecorder);
+            endpoint.setBean(new BatchListener(sseController));
+            endpoint.setMethod(BatchListener.class.getMethod("handleUserCreatedEvents", List.class));
+        } else {
+            factory = config.rabbitListenerContainerFactory(configurer, broker.connectionFactory(), lagRecorder);
+            endpoint.setBean(new SingleListener(sseController));
+            endpoint.setMethod(SingleListener.class.getMethod("handleUserCreatedEvent", UserCreatedEvent.class));
+        }
+        // Spring Boot hands the converter bean to the configurer; here it goes on the factory directly.
+        factory.setMessageConverter(config.messageConverter());
+        DefaultMessageHandlerMethodFactory methodFactory = new DefaultMessageHandlerMethodFactory();
+        methodFactory.afterPropertiesSet();
+        endpoint.setMessageHandlerMethodFactory(methodFactory);
+        endpoint.setId("listener-throughput");
+        endpoint.setQueueNames(RabbitMQConfig.QUEUE_NAME);
+
+        container = factory.createListenerContainer(endpoint);
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void consume() throws Exception {
+        broker.deliver(bodies, properties, RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.notificationservice.event.UserCreatedEvent;
+import com.example.notificationservice.sse.OverflowPolicy;
+import com.example.notificationservice.sse.SseFanout;
+import com.example.notificationservice.sse.SubscriptionFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost on the publishing (RabbitMQ listener) thread of handing events to N connected SSE clients.
+ * Clients are real SseFanout subscribers whose emitters discard writes, so the benchmark covers
+ * serialization, the replay log, the subscription index and the per-client buffers, but no socket I/O.
+ * Half the clients subscribe to everything and half to a single email, which exercises the index.
+ *
+ * publishSingly vs publishBatch is the per-message vs batch listener dispatch comparison:
+ * 100 events published one by one, or as one publishAll.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SseFanoutBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"10", "1000", "10000"})
+    public int clients;
+
+    private SseFanout fanout;
+    private List<UserCreatedEvent> events;
+
+    /** An emitter whose writes go nowhere. */
+    static class DiscardingSseEmitter extends SseEmitter {
+        @Override
+        public void send(SseEventBuilder builder) {
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        fanout = new SseFanout(new SimpleMeterRegistry(), Jackson2ObjectMapperBuilder.json().build(),
+            256, OverflowPolicy.DROP_OLDEST, 15_000, 0, 10_000, 300_000);
+        for (int i = 0; i < clients; i++) {
+            SubscriptionFilter filter = i % 2 == 0
+                ? SubscriptionFilter.ALL
+                : new SubscriptionFilter(Set.of(), "user" + i + "@example.com", null);
+            fanout.subscribe(filter, null, new DiscardingSseEmitter());
+        }
+        events = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            events.add(new UserCreatedEvent("User " + i, "user" + i + "@example.com"));
+        }
+    }
+
+    @Benchmark
+    public void publishOne() {
+        UserCreatedEvent event = events.get(0);
+        fanout.publish("user.created", event.getEmail(), event);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void publishSingly() {
+        for (UserCreatedEvent event : events) {
+            fanout.publish("user.created", event.getEmail(), event);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void publishBatch() {
+        fanout.publishAll("user.created", events, UserCreatedEvent::getEmail);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.impl.AMQImpl;
+
+/**
+ * Stands in for RabbitMQ under a SimpleMessageListenerContainer with one consumer: a
+ * ConnectionFactory whose channel accepts the container's consumer, takes deliveries pushed by
+ * {@link #deliver} and records acks. Only the channel calls the container makes are implemented;
+ * everything else is a no-op.
+ */
+class StubRabbitBroker {
+
+    private final ConnectionFactory connectionFactory;
+    private final AtomicLong lastAck = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile Consumer consumer;
+    private volatile String consumerTag;
+    private long deliveryTag;
+
+    StubRabbitBroker() {
+        Channel channel = stub(Channel.class, (proxy, method, args) -> switch (method.getName()) {
+            case "isOpen" -> true;
+            case "queueDeclarePassive" -> new AMQImpl.Queue.DeclareOk((String) args[0], 0, 1);
+            case "basicConsume" -> {
+                consumerTag = "stub-consumer";
+                consumer = (Consumer) args[args.length - 1];
+                consumer.handleConsumeOk(consumerTag);
+                yield consumerTag;
+            }
+            case "basicCancel" -> {
+                consumer.handleCancelOk(consumerTag);
+                yield null;
+            }
+            case "basicAck" -> {
+                lastAck.accumulateAndGet((Long) args[0], Math::max);
+                yield null;
+            }
+            case "basicNack", "basicReject" -> {
+                rejected.incrementAndGet();
+                yield null;
+            }
+            default -> defaultValue(proxy, method.getName(), method.getReturnType(), args);
+        });
+        Connection connection = stub(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "createChannel" -> channel;
+            case "isOpen" -> true;
+            default -> defaultValue(proxy, method.getName(), method.getReturnType(), args);
+        });
+        connectionFactory = stub(ConnectionFactory.class, (proxy, method, args) ->
+            method.getName().equals("createConnection") ? connection : defaultValue(proxy, method.getName(), method.getReturnType(), args));
+    }
+
+    ConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    /**
+     * Push the messages to the consumer, in order, and wait until the last one is acked. Pushing
+     * blocks while the container holds prefetch-count unacked messages, as the broker would.
+     */
+    void deliver(List<byte[]> bodies, AMQP.BasicProperties properties, String exchange, String routingKey) throws IOException {
+        for (byte[] body : bodies) {
+            consumer.handleDelivery(consumerTag, new Envelope(++deliveryTag, false, exchange, routingKey), properties, body);
+        }
+        while (lastAck.get() < deliveryTag) {
+            if (rejected.get() > 0) {
+                throw new IllegalStateException(rejected.get() + " deliveries were rejected by the listener");
+            }
+            LockSupport.parkNanos(10_000);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StubRabbitBroker.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object defaultValue(Object proxy, String name, Class<?> type, Object[] args) {
+        switch (name) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "StubRabbitBroker";
+            default:
+                break;
+        }
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+}
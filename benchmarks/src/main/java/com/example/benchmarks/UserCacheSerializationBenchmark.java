@@ -0,0 +1,115 @@
+package com.example.benchmarks;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import com.example.codec.BinaryCodec;
+import com.example.codec.BinaryRedisSerializer;
+import com.example.user.entity.User;
+import com.example.user.service.UserLookupService.CachedLookup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Cost of turning a userByEmail cache entry into Redis bytes and back.
+ * jdk is RedisCacheConfiguration's default JdkSerializationRedisSerializer (user.cache.codec=jdk);
+ * json is Jackson2JsonRedisSerializer; smile is plain Jackson Smile; binary is the BinaryRedisSerializer
+ * the cache uses with user.cache.codec=binary (Smile in a versioned envelope). Encoded sizes are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserCacheSerializationBenchmark {
+
+    private CachedLookup entry;
+    private JdkSerializationRedisSerializer jdk;
+    private Jackson2JsonRedisSerializer<CachedLookup> json;
+    private ObjectMapper smile;
+    private BinaryRedisSerializer binary;
+    private byte[] jdkBytes;
+    private byte[] jsonBytes;
+    private byte[] smileBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        User user = new User();
+        user.setId(123456);
+        user.setName("Jane Doe");
+        user.setEmail("jane.doe@example.com");
+        user.setCreatedDate(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        user.setLastModifiedDate(LocalDateTime.of(2024, 5, 2, 8, 0, 0));
+        long now = System.currentTimeMillis();
+        entry = new CachedLookup(user, now, now + 600_000, 3);
+
+        jdk = new JdkSerializationRedisSerializer(getClass().getClassLoader());
+        json = new Jackson2JsonRedisSerializer<>(JsonMapper.builder().findAndAddModules().build(), CachedLookup.class);
+        smile = SmileMapper.builder().findAndAddModules().build();
+        binary = new BinaryRedisSerializer(new BinaryCodec(512), CachedLookup.class, true, getClass().getClassLoader());
+
+        jdkBytes = jdk.serialize(entry);
+        jsonBytes = json.serialize(entry);
+        smileBytes = smile.writeValueAsBytes(entry);
+        binaryBytes = binary.serialize(entry);
+        System.out.printf("%nEncoded size: jdk=%d json=%d smile=%d binary=%d bytes%n",
+            jdkBytes.length, jsonBytes.length, smileBytes.length, binaryBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jdkSerialize() {
+        return jdk.serialize(entry);
+    }
+
+    @Benchmark
+    public Object jdkDeserialize() {
+        return jdk.deserialize(jdkBytes);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return json.serialize(entry);
+    }
+
+    @Benchmark
+    public CachedLookup jsonDeserialize() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] smileSerialize() throws IOException {
+        return smile.writeValueAsBytes(entry);
+    }
+
+    @Benchmark
+    public CachedLookup smileDeserialize() throws IOException {
+        return smile.readValue(smileBytes, CachedLookup.class);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binary.serialize(entry);
+    }
+
+    @Benchmark
+    public Object binaryDeserialize() {
+        return binary.deserialize(binaryBytes);
+    }
+}
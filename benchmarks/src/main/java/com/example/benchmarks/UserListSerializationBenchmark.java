@@ -0,0 +1,94 @@
+package com.example.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.user.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The /rest/users read path over a large table, with the database replaced by an in-memory list
+ * (10% of users soft deleted):
+ * filterAll       - the original getAllUsers: load every row, filter out deleted users, serialize one JSON array
+ * firstPage       - the paged /users default: one page of page-size active users as a JSON array
+ * ndjsonExport    - /users/export: every active user, chunk by chunk, one JSON line each, to a discarding stream
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserListSerializationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int users;
+
+    @Param({"100"})
+    public int pageSize;
+
+    @Param({"500"})
+    public int chunkSize;
+
+    private ObjectMapper objectMapper;
+    private List<User> table;
+    private List<User> active;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        table = new ArrayList<>(users);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 1; i <= users; i++) {
+            User user = new User();
+            user.setId(i);
+            user.setName("User " + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setDeleted(i % 10 == 0);
+            user.setCreatedDate(created.plusSeconds(i));
+            user.setLastModifiedDate(created.plusSeconds(i));
+            table.add(user);
+        }
+        // What the index on deleted returns for the cursor queries.
+        active = table.stream().filter(user -> !user.isDeleted()).toList();
+    }
+
+    @Benchmark
+    public byte[] filterAll() throws IOException {
+        List<User> result = table.stream().filter(user -> !user.isDeleted()).toList();
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public byte[] firstPage() throws IOException {
+        return objectMapper.writeValueAsBytes(active.subList(0, Math.min(pageSize, active.size())));
+    }
+
+    @Benchmark
+    public void ndjsonExport() throws IOException {
+        OutputStream out = OutputStream.nullOutputStream();
+        for (int from = 0; from < active.size(); from += chunkSize) {
+            for (User user : active.subList(from, Math.min(active.size(), from + chunkSize))) {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * BinaryCodec: compact, versioned binary encoding of Jackson-mappable values.
+ *
+ * Layout: [magic 0xFB][format version][flags][payload]. The payload is Smile (binary JSON with
+ * back-referenced field names), deflated when the Smile form is at least compressionThreshold
+ * bytes and deflating makes it smaller (flag bit 0). Because values are mapped by property name
+ * and unknown properties are ignored, fields can be added without a format change; the version
+ * byte is for changes to the layout itself, and a reader refuses versions it does not know.
+ *
+ * The magic byte cannot start a JDK serialization stream (0xACED) or JSON text, so readers can
+ * tell this format apart from what was written before it ({@link #isEncoded}).
+ */
+public class BinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xFB;
+    public static final byte VERSION = 1;
+    /** AMQP content type of messages encoded with this codec. */
+    public static final String CONTENT_TYPE = "application/x-fundoland-binary";
+
+    private static final int HEADER_BYTES = 3;
+    private static final byte FLAG_DEFLATED = 1;
+
+    private final ObjectMapper mapper;
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold Smile payloads of at least this many bytes are deflated
+     */
+    public BinaryCodec(int compressionThreshold) {
+        this.mapper = SmileMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_BYTES && bytes[0] == MAGIC;
+    }
+
+    public byte[] encode(Object value) {
+        byte[] payload;
+        try {
+            payload = mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte flags = 0;
+        if (payload.length >= compressionThreshold) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+        byte[] encoded = new byte[HEADER_BYTES + payload.length];
+        encoded[0] = MAGIC;
+        encoded[1] = VERSION;
+        encoded[2] = flags;
+        System.arraycopy(payload, 0, encoded, HEADER_BYTES, payload.length);
+        return encoded;
+    }
+
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        return decode(bytes, mapper.constructType(type));
+    }
+
+    public <T> T decode(byte[] bytes, JavaType type) {
+        if (!isEncoded(bytes)) {
+            throw new IllegalArgumentException("Not encoded with BinaryCodec");
+        }
+        if (bytes[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported BinaryCodec version " + bytes[1]);
+        }
+        try {
+            if ((bytes[2] & FLAG_DEFLATED) != 0) {
+                byte[] payload = inflate(bytes, HEADER_BYTES);
+                return mapper.readValue(payload, type);
+            }
+            return mapper.readValue(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] buffer = new byte[input.length];
+            int length = 0;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            // Not finished means it did not fit in input.length bytes: no gain, caller keeps the original.
+            return deflater.finished() ? Arrays.copyOf(buffer, length) : input;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, input.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated BinaryCodec payload");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt BinaryCodec payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
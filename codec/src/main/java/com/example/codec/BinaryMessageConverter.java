@@ -0,0 +1,74 @@
+package com.example.codec;
+
+import java.util.function.Predicate;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+/**
+ * BinaryMessageConverter: AMQP message converter that negotiates between {@link BinaryCodec} and
+ * JSON by content type.
+ *
+ * Reading: messages with content type {@link BinaryCodec#CONTENT_TYPE} are decoded with the codec,
+ * everything else goes to the wrapped Jackson2JsonMessageConverter. The target type is resolved
+ * exactly as for JSON, by the JSON converter's type mapper (listener parameter type first, then
+ * the __TypeId__ header and its id mappings), so consumers keep their existing mappings.
+ *
+ * Writing: payloads accepted by binaryPayloads are encoded with the codec (with __TypeId__ headers
+ * as JSON would set them), others as JSON. Consumers that only understand JSON keep getting JSON,
+ * and a producer should only be switched to binary once every consumer of those payloads runs
+ * this converter.
+ */
+public class BinaryMessageConverter implements MessageConverter {
+
+    private final BinaryCodec codec;
+    private final Jackson2JsonMessageConverter json;
+    private final Predicate<Object> binaryPayloads;
+
+    /**
+     * @param binaryPayloads which payloads to write in binary; o -> false for a read-only converter
+     */
+    public BinaryMessageConverter(BinaryCodec codec, Jackson2JsonMessageConverter json, Predicate<Object> binaryPayloads) {
+        this.codec = codec;
+        this.json = json;
+        this.binaryPayloads = binaryPayloads;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        if (!binaryPayloads.test(object)) {
+            return json.toMessage(object, messageProperties);
+        }
+        byte[] body;
+        try {
+            body = codec.encode(object);
+        } catch (RuntimeException e) {
+            throw new MessageConversionException("Cannot encode " + object.getClass().getName(), e);
+        }
+        messageProperties.setContentType(BinaryCodec.CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        json.getJavaTypeMapper().fromJavaType(codec.getMapper().constructType(object.getClass()), messageProperties);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties == null || !BinaryCodec.CONTENT_TYPE.equals(properties.getContentType())) {
+            return json.fromMessage(message);
+        }
+        Jackson2JavaTypeMapper typeMapper = json.getJavaTypeMapper();
+        JavaType type = typeMapper.toJavaType(properties);
+        try {
+            return codec.decode(message.getBody(), type);
+        } catch (RuntimeException e) {
+            throw new MessageConversionException("Cannot decode message as " + type, e);
+        }
+    }
+}
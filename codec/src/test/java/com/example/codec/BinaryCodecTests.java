@@ -0,0 +1,69 @@
+package com.example.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+class BinaryCodecTests {
+
+	record Sample(String name, String email, LocalDateTime createdDate) implements Serializable {
+	}
+
+	record Older(String name) {
+	}
+
+	private final Sample sample = new Sample("Jane Doe", "jane.doe@example.com", LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+
+	@Test
+	void roundTripsAndIsSmallerThanJdkSerialization() {
+		BinaryCodec codec = new BinaryCodec(512);
+		byte[] encoded = codec.encode(sample);
+		assertTrue(BinaryCodec.isEncoded(encoded));
+		assertEquals(sample, codec.decode(encoded, Sample.class));
+		assertTrue(encoded.length < new JdkSerializationRedisSerializer().serialize(sample).length);
+	}
+
+	@Test
+	void deflatesLargePayloads() {
+		Sample large = new Sample("x".repeat(10_000), "jane.doe@example.com", null);
+		BinaryCodec codec = new BinaryCodec(512);
+		byte[] encoded = codec.encode(large);
+		assertEquals(1, encoded[2]);
+		assertTrue(encoded.length < 1_000);
+		assertEquals(large, codec.decode(encoded, Sample.class));
+	}
+
+	@Test
+	void ignoresFieldsTheReaderDoesNotKnow() {
+		BinaryCodec codec = new BinaryCodec(512);
+		assertEquals(new Older("Jane Doe"), codec.decode(codec.encode(sample), Older.class));
+	}
+
+	@Test
+	void refusesUnknownVersions() {
+		BinaryCodec codec = new BinaryCodec(512);
+		byte[] encoded = codec.encode(sample);
+		encoded[1] = 99;
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded, Sample.class));
+	}
+
+	@Test
+	void redisSerializerReadsJdkEntriesWrittenBeforeTheSwitch() {
+		BinaryCodec codec = new BinaryCodec(512);
+		ClassLoader classLoader = getClass().getClassLoader();
+		byte[] legacy = new JdkSerializationRedisSerializer(classLoader).serialize(sample);
+		BinaryRedisSerializer reader = new BinaryRedisSerializer(codec, Sample.class, false, classLoader);
+		BinaryRedisSerializer writer = new BinaryRedisSerializer(codec, Sample.class, true, classLoader);
+
+		assertEquals(sample, reader.deserialize(legacy));
+		assertArrayEquals(legacy, reader.serialize(sample));
+		assertEquals(sample, reader.deserialize(writer.serialize(sample)));
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.logservice.config;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQConfig: the log ingestion queue. Services publish log records to log.exchange with
+ * routing key log.ingest instead of calling POST /logs/add.
+ */
+@Configuration
+public class RabbitMQConfig {
+    public static final String EXCHANGE_NAME = "log.exchange";
+    public static final String QUEUE_NAME = "log.ingest.queue";
+    public static final String ROUTING_KEY = "log.ingest";
+
+    @Bean
+    public DirectExchange logExchange() {
+        return new DirectExchange(EXCHANGE_NAME);
+    }
+
+    @Bean
+    public Queue logIngestQueue() {
+        return new Queue(QUEUE_NAME);
+    }
+
+    @Bean
+    public Binding logIngestBinding(Queue logIngestQueue, DirectExchange logExchange) {
+        return BindingBuilder.bind(logIngestQueue).to(logExchange).with(ROUTING_KEY);
+    }
+
+    @Bean
+    public Jackson2JsonMessageConverter messageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    /**
+     * Batch consumer: the listener receives up to batch-size records at a time (fewer if no
+     * message arrives within batch-window-ms). With AUTO acknowledgement the whole batch is
+     * acked only after the listener returns, i.e. after the bulk insert succeeded; if the insert
+     * throws, the batch is requeued.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory logBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${logs.amqp.batch-size:500}") int batchSize,
+            @Value("${logs.amqp.batch-window-ms:100}") long batchWindowMillis) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchWindowMillis);
+        factory.setPrefetchCount(batchSize);
+        return factory;
+    }
+}
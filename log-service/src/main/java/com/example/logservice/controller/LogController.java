@@ -1,11 +1,33 @@
 package com.example.logservice.controller;
 
 import com.example.logservice.model.LogEntry;
-import com.example.logservice.repository.LogEntryRepository;
+import com.example.logservice.service.LogIngestService;
+import com.example.logservice.service.LogQueryService;
+import com.example.logservice.service.LogQueryService.LogFilter;
+import com.example.logservice.service.LogQueryService.LogPage;
+import com.example.logservice.service.LogRollupService;
+import com.example.logservice.service.LogRollupService.StatsPoint;
+import com.example.logservice.search.LogSearchIndex;
+import com.example.logservice.search.SearchQuery;
+import com.example.logservice.spool.LogSpoolService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * LogController: REST endpoints for adding and reading logs.
@@ -13,27 +35,195 @@ import java.util.List;
 @RestController
 @RequestMapping("/logs")
 public class LogController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Autowired
+    private LogIngestService logIngestService;
+
+    @Autowired
+    private LogSpoolService logSpoolService;
+
+    @Autowired
+    private LogQueryService logQueryService;
+
+    @Autowired
+    private LogRollupService logRollupService;
+
+    @Autowired
+    private LogSearchIndex logSearchIndex;
+
     @Autowired
-    private LogEntryRepository logEntryRepository;
+    private ObjectMapper objectMapper;
+
+    @Value("${logs.read.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${logs.read.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${logs.export.cursor-batch-size:1000}")
+    private int exportBatchSize;
+
+    @Value("${logs.batch.max-entries:10000}")
+    private int maxBatchEntries;
 
     /**
      * Add a new log entry.
      * Example JSON: { "service": "user", "message": "User created" }
+     * With logs.spool.enabled the entry is appended to the local spool (202 Accepted), or refused
+     * with 429 when the spool is full. With logs.write-behind.enabled the entry is queued and
+     * written in the next batch (202 Accepted), or refused with 429 when the queue is full.
      */
     @PostMapping("/add")
-    public LogEntry addLog(@RequestBody LogEntry logEntry) {
+    public ResponseEntity<LogEntry> addLog(@RequestBody LogEntry logEntry) {
         logEntry.setTimestamp(LocalDateTime.now());
-        return logEntryRepository.save(logEntry);
+        if (logSpoolService.isEnabled()) {
+            if (!logSpoolService.append(List.of(logEntry))) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(logEntry);
+        }
+        if (logIngestService.isWriteBehindEnabled()) {
+            if (!logIngestService.enqueue(logEntry)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(logEntry);
+        }
+        return ResponseEntity.ok(logIngestService.insert(logEntry));
+    }
+
+    /**
+     * Add many log entries with one unordered bulk insert.
+     * Accepts a JSON array or NDJSON (one entry per line). Entries without a timestamp get the
+     * current time; entries that carry one keep it.
+     * Returns { "inserted": n }, or with logs.spool.enabled 202 Accepted and { "accepted": n }
+     * (429 when the spool is full). A batch of more than logs.batch.max-entries entries is refused
+     * with 413 and nothing is written; reading stops at the first entry over the limit.
+     */
+    @PostMapping(path = "/add-batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<Map<String, Integer>> addLogs(InputStream body) throws IOException {
+        List<LogEntry> entries = new ArrayList<>();
+        // readValues iterates a root-level array element by element, or consecutive NDJSON values.
+        try (MappingIterator<LogEntry> values = objectMapper.readerFor(LogEntry.class).readValues(body)) {
+            while (values.hasNextValue()) {
+                if (entries.size() == maxBatchEntries) {
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+                }
+                entries.add(values.nextValue());
+            }
+        }
+        if (logSpoolService.isEnabled()) {
+            if (!logSpoolService.append(entries)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("accepted", entries.size()));
+        }
+        return ResponseEntity.ok(Map.of("inserted", logIngestService.insertBatch(entries)));
     }
 
     /**
-     * Read all logs, or filter by service.
+     * Read logs, newest first, one page at a time.
+     * Optional filters: service, level, from (inclusive) and to (exclusive) as ISO date-times,
+     * e.g. 2024-05-01T00:00:00. Returns at most limit entries (capped by logs.read.max-limit);
+     * when more remain, the X-Next-Cursor header holds the cursor to pass back for the next page.
      */
     @GetMapping("/read")
-    public List<LogEntry> readLogs(@RequestParam(required = false) String service) {
-        if (service != null && !service.isEmpty()) {
-            return logEntryRepository.findByService(service);
+    public ResponseEntity<List<LogEntry>> readLogs(
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        int pageSize = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        LogPage page;
+        try {
+            page = logQueryService.read(new LogFilter(service, level, from, to), cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.entries());
+    }
+
+    /**
+     * Full-text search over log messages, newest first, paged like /read.
+     * q: words that must all appear; "quoted text" must appear as a phrase; a word such as an
+     * email address that contains separators is matched as a phrase. Takes the same service,
+     * level, from, to, limit and cursor parameters as /read.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<LogEntry>> searchLogs(
+            @RequestParam String q,
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        SearchQuery query = SearchQuery.parse(q);
+        if (query.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        LogPage page;
+        try {
+            page = logSearchIndex.search(query, new LogFilter(service, level, from, to), cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.entries());
+    }
+
+    /**
+     * Export every matching log entry as NDJSON (one JSON object per line), newest first.
+     * Takes the same filters as /read. Entries are streamed from a MongoDB cursor straight to the
+     * response, so memory use does not grow with the size of the result.
+     */
+    @GetMapping(path = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportLogs(
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LogFilter filter = new LogFilter(service, level, from, to);
+        StreamingResponseBody body = (OutputStream out) -> {
+            try (Stream<LogEntry> entries = logQueryService.stream(filter, exportBatchSize)) {
+                for (LogEntry entry : (Iterable<LogEntry>) entries::iterator) {
+                    // writeValueAsBytes rather than writeValue(out, ...), which would close the response stream.
+                    out.write(objectMapper.writeValueAsBytes(entry));
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Entry counts per service per minute or hour, read from the rollup collection.
+     * granularity is "minute" (default) or "hour"; from (inclusive) and to (exclusive) default to
+     * the last hour for minute buckets and the last day for hour buckets. Omit service for all services.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<StatsPoint>> stats(
+            @RequestParam(required = false) String service,
+            @RequestParam(defaultValue = LogRollupService.MINUTE) String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!LogRollupService.MINUTE.equals(granularity) && !LogRollupService.HOUR.equals(granularity)) {
+            return ResponseEntity.badRequest().build();
         }
-        return logEntryRepository.findAll();
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from
+            : LogRollupService.MINUTE.equals(granularity) ? end.minusHours(1) : end.minusDays(1);
+        return ResponseEntity.ok(logRollupService.stats(service, granularity, start, end));
     }
 }
@@ -0,0 +1,40 @@
+package com.example.logservice.listener;
+
+import java.util.List;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import com.example.logservice.config.RabbitMQConfig;
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.service.LogIngestService;
+import com.example.logservice.spool.LogSpoolService;
+
+/**
+ * LogIngestListener: writes each batch of log records from log.ingest.queue with one bulk insert.
+ * With logs.spool.enabled the batch is appended to the local spool instead. Either way the batch
+ * is acknowledged only after this method returns; if the spool is full it is rejected and
+ * redelivered.
+ */
+@Component
+public class LogIngestListener {
+
+    private final LogIngestService logIngestService;
+    private final LogSpoolService logSpoolService;
+
+    public LogIngestListener(LogIngestService logIngestService, LogSpoolService logSpoolService) {
+        this.logIngestService = logIngestService;
+        this.logSpoolService = logSpoolService;
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME, containerFactory = "logBatchContainerFactory")
+    public void onLogs(List<LogEntry> entries) {
+        if (logSpoolService.isEnabled()) {
+            if (!logSpoolService.append(entries)) {
+                throw new IllegalStateException("Log spool is full");
+            }
+            return;
+        }
+        logIngestService.insertBatch(entries);
+    }
+}
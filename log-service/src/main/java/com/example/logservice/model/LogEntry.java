@@ -1,19 +1,30 @@
 package com.example.logservice.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 /**
  * LogEntry: Represents a log record stored in MongoDB.
+ * Reads are newest-first by (timestamp, id); the compound indexes serve both the per-service and
+ * the all-services query without an in-memory sort. With time partitioning enabled entries are
+ * written to per-period collections instead (see LogPartitionService), which get the same indexes.
+ * The text index on message for /logs/search is created by LogPartitionService, since its
+ * timestamp suffix keys cannot be declared here.
+ * expireAt is only set in TTL mode, where a TTL index deletes the entry once it has passed.
  */
 @Document(collection = "logs")
+@CompoundIndex(name = "service_timestamp", def = "{ 'service': 1, 'timestamp': -1, '_id': -1 }")
+@CompoundIndex(name = "timestamp", def = "{ 'timestamp': -1, '_id': -1 }")
 public class LogEntry {
     @Id
     private String id;
     private String service;
+    private String level;
     private String message;
     private LocalDateTime timestamp;
+    private LocalDateTime expireAt;
 
     public LogEntry() {}
     public LogEntry(String service, String message, LocalDateTime timestamp) {
@@ -25,8 +36,12 @@ public class LogEntry {
     public void setId(String id) { this.id = id; }
     public String getService() { return service; }
     public void setService(String service) { this.service = service; }
+    public String getLevel() { return level; }
+    public void setLevel(String level) { this.level = level; }
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
     public LocalDateTime getTimestamp() { return timestamp; }
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    public LocalDateTime getExpireAt() { return expireAt; }
+    public void setExpireAt(LocalDateTime expireAt) { this.expireAt = expireAt; }
 }
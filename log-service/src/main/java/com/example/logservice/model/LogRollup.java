@@ -0,0 +1,39 @@
+package com.example.logservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+/**
+ * LogRollup: number of log entries one service wrote in one minute or one hour.
+ * The id is "service|granularity|bucketStart", so each flush is an upsert that increments count.
+ */
+@Document(collection = "log_rollups")
+@CompoundIndex(name = "granularity_service_bucket", def = "{ 'granularity': 1, 'service': 1, 'bucketStart': 1 }")
+public class LogRollup {
+    @Id
+    private String id;
+    private String service;
+    private String granularity;
+    private LocalDateTime bucketStart;
+    private long count;
+
+    public LogRollup() {}
+    public LogRollup(String service, String granularity, LocalDateTime bucketStart, long count) {
+        this.service = service;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.count = count;
+    }
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getService() { return service; }
+    public void setService(String service) { this.service = service; }
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
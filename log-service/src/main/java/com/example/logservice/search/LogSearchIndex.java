@@ -0,0 +1,24 @@
+package com.example.logservice.search;
+
+import java.util.List;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.service.LogQueryService.LogFilter;
+import com.example.logservice.service.LogQueryService.LogPage;
+
+/**
+ * LogSearchIndex: full-text search over LogEntry.message, selected with logs.search.engine.
+ * Results are newest first and paged with the same opaque cursor as /logs/read.
+ */
+public interface LogSearchIndex {
+
+    /**
+     * Called with entries right after they were written to MongoDB.
+     */
+    void index(List<LogEntry> entries);
+
+    /**
+     * Entries matching the query and the filter, newest first.
+     */
+    LogPage search(SearchQuery query, LogFilter filter, String cursor, int limit);
+}
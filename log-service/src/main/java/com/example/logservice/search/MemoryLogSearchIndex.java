@@ -0,0 +1,208 @@
+package com.example.logservice.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.service.LogPartitionService;
+import com.example.logservice.service.LogQueryService;
+import com.example.logservice.service.LogQueryService.LogFilter;
+import com.example.logservice.service.LogQueryService.LogPage;
+import com.example.logservice.service.LogQueryService.Position;
+
+/**
+ * MemoryLogSearchIndex (logs.search.engine=memory): in-process inverted index built incrementally
+ * at ingest. Each entry's message is tokenized and its document number appended to the posting list
+ * of every token. Documents go into the active segment; when it holds segment-size documents it is
+ * sealed and a new one started, and beyond max-segments the oldest segment is dropped, so memory is
+ * bounded and only the most recent entries are searchable. The index holds only ids, services and
+ * timestamps; matching entries are loaded from MongoDB (which also checks phrases).
+ *
+ * The index is not persisted: it starts empty and covers entries ingested since startup.
+ */
+@Component
+@ConditionalOnProperty(name = "logs.search.engine", havingValue = "memory")
+public class MemoryLogSearchIndex implements LogSearchIndex {
+
+    /** Reference to an indexed entry. */
+    private record Doc(ObjectId id, String service, LocalDateTime timestamp) {
+    }
+
+    private static final Comparator<Doc> NEWEST_FIRST = Comparator
+        .comparing(Doc::timestamp)
+        .thenComparing(Doc::id)
+        .reversed();
+
+    /** A run of documents with posting lists of ascending document numbers. */
+    private static final class Segment {
+        final List<Doc> docs = new ArrayList<>();
+        final Map<String, int[]> postings = new HashMap<>();
+        final Map<String, Integer> postingSizes = new HashMap<>();
+
+        void add(Doc doc, String message) {
+            int docNumber = docs.size();
+            docs.add(doc);
+            for (String token : new LinkedHashSet<>(SearchQuery.tokenize(message == null ? "" : message))) {
+                int size = postingSizes.getOrDefault(token, 0);
+                int[] list = postings.get(token);
+                if (list == null || list.length == size) {
+                    list = list == null ? new int[4] : Arrays.copyOf(list, size * 2);
+                    postings.put(token, list);
+                }
+                list[size] = docNumber;
+                postingSizes.put(token, size + 1);
+            }
+        }
+
+        /** Document numbers containing every token (sorted posting list intersection). */
+        int[] match(List<String> tokens) {
+            int[] result = null;
+            int resultSize = 0;
+            for (String token : tokens) {
+                int[] list = postings.get(token);
+                if (list == null) return new int[0];
+                int size = postingSizes.get(token);
+                if (result == null) {
+                    result = Arrays.copyOf(list, size);
+                    resultSize = size;
+                    continue;
+                }
+                int kept = 0;
+                for (int i = 0, j = 0; i < resultSize && j < size; ) {
+                    if (result[i] == list[j]) { result[kept++] = result[i]; i++; j++; }
+                    else if (result[i] < list[j]) i++;
+                    else j++;
+                }
+                resultSize = kept;
+            }
+            return result == null ? new int[0] : Arrays.copyOf(result, resultSize);
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final LogPartitionService logPartitionService;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MemoryLogSearchIndex(MongoTemplate mongoTemplate,
+                                LogPartitionService logPartitionService,
+                                @Value("${logs.search.memory.segment-size:100000}") int segmentSize,
+                                @Value("${logs.search.memory.max-segments:20}") int maxSegments) {
+        this.mongoTemplate = mongoTemplate;
+        this.logPartitionService = logPartitionService;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        segments.addLast(new Segment());
+    }
+
+    @Override
+    public void index(List<LogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            for (LogEntry entry : entries) {
+                Segment active = segments.peekLast();
+                if (active.docs.size() >= segmentSize) {
+                    active = new Segment();
+                    segments.addLast(active);
+                    if (segments.size() > maxSegments) segments.removeFirst();
+                }
+                active.add(new Doc(new ObjectId(entry.getId()), entry.getService(), entry.getTimestamp()), entry.getMessage());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public LogPage search(SearchQuery query, LogFilter filter, String cursor, int limit) {
+        Position after = cursor == null || cursor.isEmpty() ? null : LogQueryService.decodeCursor(cursor);
+        List<String> tokens = query.allTokens();
+        List<Doc> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Segment segment : segments) {
+                for (int docNumber : segment.match(tokens)) {
+                    Doc doc = segment.docs.get(docNumber);
+                    if (accepts(doc, filter, after)) candidates.add(doc);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        candidates.sort(NEWEST_FIRST);
+
+        // Load candidates newest first, a chunk at a time, until the page is full. Level and
+        // phrases are checked on the loaded entries.
+        List<LogEntry> entries = new ArrayList<>();
+        for (int from = 0; from < candidates.size() && entries.size() <= limit; from += limit + 1) {
+            List<Doc> chunk = candidates.subList(from, Math.min(candidates.size(), from + limit + 1));
+            for (LogEntry entry : load(chunk)) {
+                if (entries.size() > limit) break;
+                if (filter.level() != null && !filter.level().isEmpty() && !filter.level().equals(entry.getLevel())) continue;
+                if (!query.phrasesMatch(entry.getMessage())) continue;
+                entries.add(entry);
+            }
+        }
+        if (entries.size() <= limit) {
+            return new LogPage(entries, null);
+        }
+        entries = entries.subList(0, limit);
+        return new LogPage(entries, LogQueryService.encodeCursor(entries.get(limit - 1)));
+    }
+
+    private static boolean accepts(Doc doc, LogFilter filter, Position after) {
+        if (filter.service() != null && !filter.service().isEmpty() && !filter.service().equals(doc.service())) return false;
+        if (filter.from() != null && doc.timestamp().isBefore(filter.from())) return false;
+        if (filter.to() != null && !doc.timestamp().isBefore(filter.to())) return false;
+        if (after != null) {
+            int cmp = doc.timestamp().compareTo(after.timestamp());
+            return cmp < 0 || (cmp == 0 && doc.id().compareTo(after.id()) < 0);
+        }
+        return true;
+    }
+
+    /**
+     * Loads the entries of a chunk from their collections, in the order of the chunk. Entries
+     * deleted since they were indexed (retention) are skipped.
+     */
+    private List<LogEntry> load(List<Doc> chunk) {
+        Map<String, List<ObjectId>> byCollection = new LinkedHashMap<>();
+        for (Doc doc : chunk) {
+            byCollection.computeIfAbsent(logPartitionService.collectionOf(doc.service(), doc.timestamp()),
+                c -> new ArrayList<>()).add(doc.id());
+        }
+        Map<String, LogEntry> loaded = new HashMap<>();
+        byCollection.forEach((collection, ids) -> {
+            for (LogEntry entry : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), LogEntry.class, collection)) {
+                loaded.put(entry.getId(), entry);
+            }
+        });
+        List<LogEntry> ordered = new ArrayList<>(chunk.size());
+        for (Doc doc : chunk) {
+            LogEntry entry = loaded.get(doc.id().toHexString());
+            if (entry != null) ordered.add(entry);
+        }
+        return ordered;
+    }
+}
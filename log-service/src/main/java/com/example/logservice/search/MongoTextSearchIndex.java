@@ -0,0 +1,86 @@
+package com.example.logservice.search;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.stereotype.Component;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.service.LogQueryService;
+import com.example.logservice.service.LogQueryService.LogFilter;
+import com.example.logservice.service.LogQueryService.LogPage;
+
+/**
+ * MongoTextSearchIndex (logs.search.engine=mongo, the default): uses the MongoDB text index on
+ * message, which the server maintains on every insert, so there is nothing to do at ingest.
+ * Each term and phrase is sent as a quoted $text phrase, which MongoDB ANDs together; the rest of
+ * the query (filters, partitions, recency order, cursor) is the same as /logs/read.
+ *
+ * A text index cannot serve the newest-first order, so MongoDB sorts every match in memory. To
+ * keep that sort small the search runs over time windows going back from the newest possible
+ * match: the first covers the last hour, each next one is four times as long, and the last one
+ * is open-ended. The search stops at the first window that fills the page.
+ */
+@Component
+@ConditionalOnProperty(name = "logs.search.engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoTextSearchIndex implements LogSearchIndex {
+
+    static final Duration FIRST_WINDOW = Duration.ofHours(1);
+    static final int WINDOW_GROWTH = 4;
+    /** Windows before the open-ended one: 1 h, 4 h, 16 h, 64 h, 256 h and 1024 h (about 6 weeks). */
+    static final int BOUNDED_WINDOWS = 6;
+
+    private final LogQueryService logQueryService;
+
+    public MongoTextSearchIndex(LogQueryService logQueryService) {
+        this.logQueryService = logQueryService;
+    }
+
+    @Override
+    public void index(List<LogEntry> entries) {
+        // Maintained by MongoDB.
+    }
+
+    @Override
+    public LogPage search(SearchQuery query, LogFilter filter, String cursor, int limit) {
+        TextCriteria text = TextCriteria.forLanguage("none");
+        for (String term : query.terms()) text.matchingPhrase(term);
+        for (String phrase : query.phrases()) text.matchingPhrase(phrase);
+
+        // Nothing newer than the cursor or filter.to can match. Entries may carry a timestamp
+        // after now, so without either the first window is open towards the future.
+        LocalDateTime newest = LocalDateTime.now();
+        if (filter.to() != null && filter.to().isBefore(newest)) newest = filter.to();
+        if (cursor != null && !cursor.isEmpty()) {
+            LocalDateTime after = LogQueryService.decodeCursor(cursor).timestamp().plusNanos(1);
+            if (after.isBefore(newest)) newest = after;
+        }
+
+        List<LogEntry> entries = new ArrayList<>();
+        LocalDateTime to = filter.to();
+        Duration window = FIRST_WINDOW;
+        for (int i = 0; ; i++) {
+            LocalDateTime from = i < BOUNDED_WINDOWS ? newest.minus(window) : null;
+            boolean last = from == null || (filter.from() != null && !from.isAfter(filter.from()));
+            if (last) from = filter.from();
+            // One entry more than the page holds, as in LogQueryService, to tell whether a next page exists.
+            LogPage page = logQueryService.read(new LogFilter(filter.service(), filter.level(), from, to),
+                text, cursor, limit + 1 - entries.size());
+            entries.addAll(page.entries());
+            if (entries.size() > limit) {
+                entries = entries.subList(0, limit);
+                return new LogPage(entries, LogQueryService.encodeCursor(entries.get(limit - 1)));
+            }
+            if (last) {
+                return new LogPage(entries, null);
+            }
+            newest = from;
+            to = from;
+            window = window.multipliedBy(WINDOW_GROWTH);
+        }
+    }
+}
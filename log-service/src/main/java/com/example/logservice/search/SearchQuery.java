@@ -0,0 +1,71 @@
+package com.example.logservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A parsed /logs/search query. All parts must match (AND).
+ * "quoted text" is a phrase; a bare word is a term. A bare word that the tokenizer splits into
+ * several tokens, such as an email address, is treated as a phrase so that
+ * john@example.com does not match "john wrote to bob@example.com".
+ *
+ * @param terms   single lower-case tokens
+ * @param phrases lower-case phrases of two or more tokens
+ */
+public record SearchQuery(List<String> terms, List<String> phrases) {
+
+    private static final Pattern PART = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public static SearchQuery parse(String q) {
+        List<String> terms = new ArrayList<>();
+        List<String> phrases = new ArrayList<>();
+        Matcher matcher = PART.matcher(q == null ? "" : q);
+        while (matcher.find()) {
+            String text = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            List<String> tokens = tokenize(text);
+            if (tokens.size() == 1) {
+                terms.add(tokens.get(0));
+            } else if (tokens.size() > 1) {
+                phrases.add(text.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return new SearchQuery(terms, phrases);
+    }
+
+    /**
+     * Splits text into lower-case letter/digit tokens, the unit of the inverted index.
+     */
+    public static List<String> tokenize(String text) {
+        return Arrays.stream(SEPARATORS.split(text.toLowerCase(Locale.ROOT)))
+            .filter(token -> !token.isEmpty())
+            .toList();
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty() && phrases.isEmpty();
+    }
+
+    /**
+     * Every token the query needs, phrases included; a matching entry contains all of them.
+     */
+    public List<String> allTokens() {
+        List<String> tokens = new ArrayList<>(terms);
+        for (String phrase : phrases) tokens.addAll(tokenize(phrase));
+        return tokens;
+    }
+
+    /**
+     * Whether a message contains every phrase (case-insensitive).
+     */
+    public boolean phrasesMatch(String message) {
+        if (phrases.isEmpty()) return true;
+        if (message == null) return false;
+        String lower = message.toLowerCase(Locale.ROOT);
+        return phrases.stream().allMatch(lower::contains);
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.logservice.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.search.LogSearchIndex;
+import com.mongodb.bulk.BulkWriteError;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * LogIngestService: batched writes of log entries to MongoDB.
+ * Batches are written with one unordered bulk insert (insertMany) instead of one save per entry.
+ * In write-behind mode single entries are queued in a bounded in-memory buffer and a background
+ * flusher writes them out when batch-size entries are waiting or flush-interval-ms has passed.
+ * The target collection of each entry comes from LogPartitionService.
+ */
+@Service
+public class LogIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(LogIngestService.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final LogRollupService logRollupService;
+    private final LogPartitionService logPartitionService;
+    private final LogSearchIndex logSearchIndex;
+    private final boolean writeBehindEnabled;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<LogEntry> queue;
+    private final Timer flushTimer;
+    private final Counter flushedEntries;
+    private final Counter rejectedEntries;
+    private final Counter failedEntries;
+    private volatile boolean running = true;
+    private Thread flusher;
+
+    public LogIngestService(MongoTemplate mongoTemplate,
+                            LogRollupService logRollupService,
+                            LogPartitionService logPartitionService,
+                            LogSearchIndex logSearchIndex,
+                            MeterRegistry meterRegistry,
+                            @Value("${logs.write-behind.enabled:false}") boolean writeBehindEnabled,
+                            @Value("${logs.write-behind.queue-capacity:100000}") int queueCapacity,
+                            @Value("${logs.write-behind.batch-size:1000}") int batchSize,
+                            @Value("${logs.write-behind.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.logRollupService = logRollupService;
+        this.logPartitionService = logPartitionService;
+        this.logSearchIndex = logSearchIndex;
+        this.writeBehindEnabled = writeBehindEnabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushTimer = Timer.builder("logs.ingest.flush.latency")
+            .description("Time to write one batch to MongoDB")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.flushedEntries = Counter.builder("logs.ingest.flushed")
+            .description("Log entries written to MongoDB")
+            .register(meterRegistry);
+        this.rejectedEntries = Counter.builder("logs.ingest.rejected")
+            .description("Log entries refused because the write-behind queue was full")
+            .register(meterRegistry);
+        this.failedEntries = Counter.builder("logs.ingest.failed")
+            .description("Log entries lost because a flush to MongoDB failed")
+            .register(meterRegistry);
+        Gauge.builder("logs.ingest.queue.depth", queue, BlockingQueue::size)
+            .description("Log entries waiting in the write-behind queue")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (writeBehindEnabled) {
+            flusher = Thread.ofPlatform().name("log-write-behind").daemon().start(this::flushLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    /**
+     * Queue one entry for write-behind.
+     * @return false if the queue is full; the caller should shed load (HTTP 429)
+     */
+    public boolean enqueue(LogEntry entry) {
+        stamp(entry);
+        if (queue.offer(entry)) {
+            return true;
+        }
+        rejectedEntries.increment();
+        return false;
+    }
+
+    /**
+     * Write one entry now.
+     */
+    public LogEntry insert(LogEntry entry) {
+        stamp(entry);
+        LogEntry saved = mongoTemplate.insert(entry, logPartitionService.collectionFor(entry));
+        logRollupService.record(List.of(saved));
+        logSearchIndex.index(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Write a batch now with one unordered bulk insert.
+     * @return the number of entries inserted
+     */
+    public int insertBatch(List<LogEntry> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        for (LogEntry entry : entries) {
+            stamp(entry);
+        }
+        return write(entries);
+    }
+
+    /**
+     * Write a batch replayed from the durable spool. Entries already carry their ids, so entries
+     * that were written before a crash are rejected as duplicate keys and skipped; they are not
+     * counted in the rollups or indexed a second time.
+     * @return the number of entries newly inserted
+     */
+    public int insertReplayed(List<LogEntry> entries) {
+        return write(entries, true);
+    }
+
+    private int write(List<LogEntry> entries) {
+        return write(entries, false, new ArrayList<>());
+    }
+
+    private int write(List<LogEntry> entries, boolean ignoreDuplicates) {
+        return write(entries, ignoreDuplicates, new ArrayList<>());
+    }
+
+    /**
+     * Write entries with one unordered bulk insert per target collection. A partition whose insert
+     * fails does not stop the others: what they inserted is counted, rolled up and indexed, the
+     * entries of the failed partitions are added to unwritten, and the first failure is rethrown
+     * (later ones suppressed on it).
+     */
+    private int write(List<LogEntry> entries, boolean ignoreDuplicates, List<LogEntry> unwritten) {
+        Timer.Sample sample = Timer.start();
+        try {
+            // One bulk insert per target collection; with partitioning off that is always just "logs".
+            Map<String, List<LogEntry>> byCollection = new LinkedHashMap<>();
+            for (LogEntry entry : entries) {
+                // Assign ids up front: bulk inserts do not copy generated ids back onto the entries.
+                if (entry.getId() == null) {
+                    entry.setId(new ObjectId().toHexString());
+                }
+                byCollection.computeIfAbsent(logPartitionService.collectionFor(entry), c -> new ArrayList<>()).add(entry);
+            }
+            int inserted = 0;
+            List<LogEntry> written = new ArrayList<>(entries.size());
+            RuntimeException failure = null;
+            for (Map.Entry<String, List<LogEntry>> partition : byCollection.entrySet()) {
+                List<LogEntry> batch = partition.getValue();
+                try {
+                    inserted += insertPartition(partition.getKey(), batch, ignoreDuplicates, written);
+                } catch (RuntimeException e) {
+                    unwritten.addAll(batch);
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            flushedEntries.increment(inserted);
+            logRollupService.record(written);
+            logSearchIndex.index(written);
+            if (failure != null) {
+                throw failure;
+            }
+            return inserted;
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    /**
+     * Bulk insert one partition's entries; the ones that went in are added to written.
+     * @return the number of entries inserted
+     */
+    private int insertPartition(String collection, List<LogEntry> batch, boolean ignoreDuplicates, List<LogEntry> written) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LogEntry.class, collection);
+        bulk.insert(batch);
+        try {
+            int inserted = bulk.execute().getInsertedCount();
+            written.addAll(batch);
+            return inserted;
+        } catch (BulkOperationException e) {
+            if (!ignoreDuplicates || !e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                throw e;
+            }
+            // The bulk is unordered, so every entry except the rejected duplicates went in.
+            // Those were counted and indexed when they were first written.
+            Set<Integer> duplicates = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                duplicates.add(error.getIndex());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (!duplicates.contains(i)) {
+                    written.add(batch.get(i));
+                }
+            }
+            return e.getResult().getInsertedCount();
+        }
+    }
+
+    private static void stamp(LogEntry entry) {
+        if (entry.getTimestamp() == null) {
+            entry.setTimestamp(LocalDateTime.now());
+        }
+    }
+
+    private void flushLoop() {
+        List<LogEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LogEntry first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+                        if (remaining <= 0) break;
+                        LogEntry next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                        if (next == null) break;
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: fall through, flush what we have and drain the rest.
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                List<LogEntry> unwritten = new ArrayList<>();
+                try {
+                    write(batch, false, unwritten);
+                } catch (RuntimeException e) {
+                    failedEntries.increment(unwritten.size());
+                    log.warn("Write-behind flush lost {} of {} entries: {}", unwritten.size(), batch.size(), e.getMessage());
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+}
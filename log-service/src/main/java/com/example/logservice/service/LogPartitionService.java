@@ -0,0 +1,301 @@
+package com.example.logservice.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.logservice.model.LogEntry;
+
+/**
+ * LogPartitionService: decides which collection a log entry lives in, which collections a query
+ * has to read, and when old data is removed.
+ *
+ * Modes (logs.partition.mode):
+ * none   - one "logs" collection, kept forever (the original layout)
+ * ttl    - one "logs" collection; each entry gets expireAt = timestamp + retention of its service
+ *          and a TTL index lets MongoDB delete it in the background
+ * daily  - one collection per day, e.g. logs.default.d2024-05-01
+ * weekly - one collection per ISO week (named by its Monday), e.g. logs.default.w2024-04-29
+ *
+ * In the partitioned modes services with their own retention (logs.retention.services) get their
+ * own series of collections (logs.audit.d2024-05-01) and everything else shares the "default"
+ * series. A partition is dropped whole, with dropCollection, once its period ends before
+ * now - retention of its series, so expiry never runs ranged deletes.
+ */
+@Service
+public class LogPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(LogPartitionService.class);
+
+    public enum Mode { NONE, TTL, DAILY, WEEKLY }
+
+    private static final String OLD_MESSAGE_TEXT = "message_text";
+
+    /**
+     * Text index on message (no stemming, language "none") for /logs/search. timestamp and _id
+     * follow as suffix keys, so the time range and cursor of a search are checked on index keys
+     * before any document is fetched. A text index cannot return entries in timestamp order.
+     */
+    private static final IndexDefinition MESSAGE_TEXT = new IndexDefinition() {
+        @Override
+        public Document getIndexKeys() {
+            return new Document("message", "text").append("timestamp", -1).append("_id", -1);
+        }
+
+        @Override
+        public Document getIndexOptions() {
+            return new Document("name", "message_text_timestamp").append("default_language", "none");
+        }
+    };
+
+    static final String DEFAULT_SERIES = "default";
+
+    /** A partition collection parsed from its name. */
+    record Partition(String collection, String series, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final Mode mode;
+    private final String baseCollection;
+    private final Duration defaultRetention;
+    private final Map<String, Duration> serviceRetention;
+    private final Set<String> indexed = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> known = Set.of();
+
+    public LogPartitionService(MongoTemplate mongoTemplate,
+                               @Value("${logs.partition.mode:none}") String mode,
+                               @Value("${logs.retention.default:30d}") String defaultRetention,
+                               @Value("${logs.retention.services:}") String serviceRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.baseCollection = mongoTemplate.getCollectionName(LogEntry.class);
+        this.defaultRetention = DurationStyle.detectAndParse(defaultRetention);
+        this.serviceRetention = parseRetention(serviceRetention);
+    }
+
+    /**
+     * Parses "audit=365d,debug=3d" into service -> retention.
+     */
+    private static Map<String, Duration> parseRetention(String spec) {
+        Map<String, Duration> retention = new HashMap<>();
+        for (String item : spec.split(",")) {
+            if (item.isBlank()) continue;
+            String[] parts = item.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("logs.retention.services entries must be service=duration: " + item);
+            }
+            retention.put(parts[0].trim(), DurationStyle.detectAndParse(parts[1].trim()));
+        }
+        return retention;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    private boolean partitioned() {
+        return mode == Mode.DAILY || mode == Mode.WEEKLY;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            if (mode == Mode.TTL) {
+                mongoTemplate.indexOps(baseCollection)
+                    .createIndex(new Index().on("expireAt", Sort.Direction.ASC).expire(0).named("expireAt_ttl"));
+            }
+            if (!partitioned()) {
+                ensureIndexes(baseCollection);
+            }
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Log partition setup failed, will retry on the next maintenance run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Collection the entry should be written to. Also stamps expireAt in TTL mode and creates the
+     * indexes of a partition the first time it is written to.
+     */
+    public String collectionFor(LogEntry entry) {
+        if (mode == Mode.TTL) {
+            entry.setExpireAt(entry.getTimestamp().plus(retentionOf(seriesOf(entry.getService()))));
+        }
+        if (!partitioned()) {
+            return baseCollection;
+        }
+        String collection = collectionName(seriesOf(entry.getService()), periodStart(entry.getTimestamp()));
+        if (indexed.add(collection)) {
+            ensureIndexes(collection);
+        }
+        return collection;
+    }
+
+    /**
+     * Collection an entry of this service and timestamp was written to; unlike
+     * {@link #collectionFor} this has no side effects.
+     */
+    public String collectionOf(String service, LocalDateTime timestamp) {
+        return partitioned() ? collectionName(seriesOf(service), periodStart(timestamp)) : baseCollection;
+    }
+
+    private void ensureIndexes(String collection) {
+        IndexOperations indexOps = mongoTemplate.indexOps(collection);
+        indexOps.createIndex(new CompoundIndexDefinition(
+            new Document("service", 1).append("timestamp", -1).append("_id", -1)).named("service_timestamp"));
+        indexOps.createIndex(new CompoundIndexDefinition(
+            new Document("timestamp", -1).append("_id", -1)).named("timestamp"));
+        // A collection has at most one text index: replace the message-only one of older versions.
+        if (indexOps.getIndexInfo().stream().anyMatch(index -> index.getName().equals(OLD_MESSAGE_TEXT))) {
+            indexOps.dropIndex(OLD_MESSAGE_TEXT);
+        }
+        indexOps.createIndex(MESSAGE_TEXT);
+    }
+
+    /**
+     * Collections a query over [from, to) has to read, grouped by period, newest period first.
+     * Periods do not overlap in time, so reading the groups in order and merging within a group
+     * gives a globally newest-first result. from/to may be null (unbounded).
+     */
+    public List<List<String>> collectionsFor(String service, LocalDateTime from, LocalDateTime to) {
+        if (!partitioned()) {
+            return List.of(List.of(baseCollection));
+        }
+        Collection<String> series = service != null && !service.isEmpty()
+            ? List.of(seriesOf(service))
+            : allSeries();
+        // Partitions created by other instances since the last refresh are only missed if they are
+        // older than the current and previous period, which is why those two are always included.
+        LocalDateTime current = periodStart(LocalDateTime.now());
+        Set<String> candidates = new HashSet<>(known);
+        for (String s : series) {
+            candidates.add(collectionName(s, current));
+            candidates.add(collectionName(s, previousPeriod(current)));
+        }
+        TreeMap<LocalDateTime, List<String>> byPeriod = new TreeMap<>();
+        for (String collection : candidates) {
+            Partition partition = parse(collection);
+            if (partition == null || !series.contains(partition.series())) continue;
+            if (from != null && !partition.end().isAfter(from)) continue;
+            if (to != null && !partition.start().isBefore(to)) continue;
+            byPeriod.computeIfAbsent(partition.start(), k -> new ArrayList<>()).add(collection);
+        }
+        return new ArrayList<>(byPeriod.descendingMap().values());
+    }
+
+    /**
+     * Drops partitions whose whole period is past retention and refreshes the list of existing
+     * partitions. In TTL and none mode there is nothing to drop.
+     */
+    @Scheduled(fixedDelayString = "${logs.partition.maintenance-interval-ms:60000}")
+    public void maintain() {
+        if (!partitioned()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (String collection : mongoTemplate.getCollectionNames()) {
+            Partition partition = parse(collection);
+            if (partition != null && partition.end().isBefore(now.minus(retentionOf(partition.series())))) {
+                mongoTemplate.dropCollection(collection);
+                indexed.remove(collection);
+                log.info("Dropped expired log partition {}", collection);
+            }
+        }
+        refresh();
+    }
+
+    private void refresh() {
+        Set<String> partitions = new HashSet<>();
+        for (String collection : mongoTemplate.getCollectionNames()) {
+            if (parse(collection) != null) partitions.add(collection);
+        }
+        known = partitions;
+    }
+
+    private Collection<String> allSeries() {
+        List<String> series = new ArrayList<>();
+        series.add(DEFAULT_SERIES);
+        for (String service : serviceRetention.keySet()) series.add(sanitize(service));
+        return series;
+    }
+
+    private String seriesOf(String service) {
+        return service != null && serviceRetention.containsKey(service) ? sanitize(service) : DEFAULT_SERIES;
+    }
+
+    private Duration retentionOf(String series) {
+        for (Map.Entry<String, Duration> entry : serviceRetention.entrySet()) {
+            if (sanitize(entry.getKey()).equals(series)) return entry.getValue();
+        }
+        return defaultRetention;
+    }
+
+    private static String sanitize(String service) {
+        return service.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    private LocalDateTime periodStart(LocalDateTime timestamp) {
+        LocalDateTime day = timestamp.truncatedTo(ChronoUnit.DAYS);
+        return mode == Mode.WEEKLY ? day.with(DayOfWeek.MONDAY) : day;
+    }
+
+    private LocalDateTime previousPeriod(LocalDateTime start) {
+        return mode == Mode.WEEKLY ? start.minusWeeks(1) : start.minusDays(1);
+    }
+
+    private String collectionName(String series, LocalDateTime start) {
+        char unit = mode == Mode.WEEKLY ? 'w' : 'd';
+        return baseCollection + "." + series + "." + unit + start.toLocalDate();
+    }
+
+    /**
+     * Parses "logs.{series}.{d|w}{yyyy-MM-dd}"; null for anything else, including the base collection.
+     */
+    private Partition parse(String collection) {
+        if (!collection.startsWith(baseCollection + ".")) return null;
+        int lastDot = collection.lastIndexOf('.');
+        if (lastDot <= baseCollection.length() + 1 || lastDot == collection.length() - 1) return null;
+        String series = collection.substring(baseCollection.length() + 1, lastDot);
+        String period = collection.substring(lastDot + 1);
+        LocalDateTime start;
+        try {
+            start = LocalDate.parse(period.substring(1)).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        return switch (period.charAt(0)) {
+            case 'd' -> new Partition(collection, series, start, start.plusDays(1));
+            case 'w' -> new Partition(collection, series, start, start.plusWeeks(1));
+            default -> null;
+        };
+    }
+}
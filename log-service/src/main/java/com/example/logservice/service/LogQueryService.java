@@ -0,0 +1,215 @@
+package com.example.logservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.logservice.model.LogEntry;
+
+/**
+ * LogQueryService: bounded, index-backed reads of the logs collection (or, with time
+ * partitioning, of only the partitions that overlap the requested range).
+ * Results are ordered newest first by (timestamp, id), which matches the compound indexes on
+ * LogEntry. Pages continue from an opaque cursor (keyset pagination) instead of skip/offset, so
+ * every page is an index range scan no matter how deep the client has paged.
+ */
+@Service
+public class LogQueryService {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp", "_id");
+
+    public static final Comparator<LogEntry> NEWEST_FIRST_ORDER = Comparator
+        .comparing(LogEntry::getTimestamp)
+        .thenComparing(LogEntry::getId)
+        .reversed();
+
+    private final MongoTemplate mongoTemplate;
+    private final LogPartitionService logPartitionService;
+
+    public LogQueryService(MongoTemplate mongoTemplate, LogPartitionService logPartitionService) {
+        this.mongoTemplate = mongoTemplate;
+        this.logPartitionService = logPartitionService;
+    }
+
+    /**
+     * Filters for a log read. Any field may be null.
+     *
+     * @param service exact service name
+     * @param level   exact level, e.g. "ERROR"
+     * @param from    inclusive lower bound on timestamp
+     * @param to      exclusive upper bound on timestamp
+     */
+    public record LogFilter(String service, String level, LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * One page of results.
+     *
+     * @param entries    up to limit entries, newest first
+     * @param nextCursor cursor for the following page, or null when this is the last page
+     */
+    public record LogPage(List<LogEntry> entries, String nextCursor) {
+    }
+
+    /**
+     * Read one page of up to limit entries, continuing after cursor (null for the first page).
+     * Partitions are read newest first and reading stops as soon as the page is full, so a page
+     * near the present touches only the latest partition or two.
+     */
+    public LogPage read(LogFilter filter, String cursor, int limit) {
+        return read(filter, null, cursor, limit);
+    }
+
+    /**
+     * Like {@link #read(LogFilter, String, int)}, with an extra condition such as a $text search.
+     */
+    public LogPage read(LogFilter filter, CriteriaDefinition extra, String cursor, int limit) {
+        Position after = cursor == null || cursor.isEmpty() ? null : decodeCursor(cursor);
+        Criteria criteria = criteria(filter, after);
+        // Nothing newer than the cursor can match, so partitions after it need not be read.
+        LocalDateTime routeTo = after == null ? filter.to() : min(filter.to(), after.timestamp().plusNanos(1));
+        List<LogEntry> entries = new ArrayList<>();
+        for (List<String> period : logPartitionService.collectionsFor(filter.service(), filter.from(), routeTo)) {
+            int wanted = limit + 1 - entries.size();
+            List<LogEntry> found = new ArrayList<>();
+            for (String collection : period) {
+                Query query = new Query(criteria).with(NEWEST_FIRST).limit(wanted);
+                if (extra != null) query.addCriteria(extra);
+                found.addAll(mongoTemplate.find(query, LogEntry.class, collection));
+            }
+            if (period.size() > 1) {
+                found.sort(NEWEST_FIRST_ORDER);
+            }
+            entries.addAll(found.subList(0, Math.min(wanted, found.size())));
+            if (entries.size() > limit) {
+                break;
+            }
+        }
+        if (entries.size() <= limit) {
+            return new LogPage(entries, null);
+        }
+        entries = entries.subList(0, limit);
+        return new LogPage(entries, encodeCursor(entries.get(limit - 1)));
+    }
+
+    /**
+     * Stream every matching entry from server-side cursors, fetching batchSize documents per
+     * round trip. Partitions are opened one period at a time, newest first. The caller must close
+     * the stream.
+     */
+    public Stream<LogEntry> stream(LogFilter filter, int batchSize) {
+        Query query = new Query(criteria(filter, null)).with(NEWEST_FIRST).cursorBatchSize(batchSize);
+        PartitionCursor cursor = new PartitionCursor(
+            logPartitionService.collectionsFor(filter.service(), filter.from(), filter.to()), query);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+            .onClose(cursor::close);
+    }
+
+    /**
+     * Iterates the partitions of a query period by period. Within a period that has several
+     * collections (one per retention series) their cursors are merged newest first.
+     */
+    private class PartitionCursor implements Iterator<LogEntry> {
+        private final Iterator<List<String>> periods;
+        private final Query query;
+        private final List<Stream<LogEntry>> open = new ArrayList<>();
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::entry, NEWEST_FIRST_ORDER));
+
+        private record Head(LogEntry entry, Iterator<LogEntry> rest) {
+        }
+
+        PartitionCursor(List<List<String>> periods, Query query) {
+            this.periods = periods.iterator();
+            this.query = query;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (heads.isEmpty() && periods.hasNext()) {
+                close();
+                for (String collection : periods.next()) {
+                    Stream<LogEntry> stream = mongoTemplate.stream(query, LogEntry.class, collection);
+                    open.add(stream);
+                    Iterator<LogEntry> it = stream.iterator();
+                    if (it.hasNext()) heads.add(new Head(it.next(), it));
+                }
+            }
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public LogEntry next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Head head = heads.poll();
+            if (head.rest().hasNext()) heads.add(new Head(head.rest().next(), head.rest()));
+            return head.entry();
+        }
+
+        void close() {
+            open.forEach(Stream::close);
+            open.clear();
+        }
+    }
+
+    /** Position of the last entry of a page: where the next page continues. */
+    public record Position(LocalDateTime timestamp, ObjectId id) {
+    }
+
+    private static Criteria criteria(LogFilter filter, Position after) {
+        Criteria criteria = new Criteria();
+        if (filter.service() != null && !filter.service().isEmpty()) {
+            criteria.and("service").is(filter.service());
+        }
+        if (filter.level() != null && !filter.level().isEmpty()) {
+            criteria.and("level").is(filter.level());
+        }
+        if (filter.from() != null || filter.to() != null) {
+            Criteria timestamp = criteria.and("timestamp");
+            if (filter.from() != null) timestamp.gte(filter.from());
+            if (filter.to() != null) timestamp.lt(filter.to());
+        }
+        if (after == null) {
+            return criteria;
+        }
+        // Entries strictly after the cursor in (timestamp desc, id desc) order.
+        return new Criteria().andOperator(criteria, new Criteria().orOperator(
+            Criteria.where("timestamp").lt(after.timestamp()),
+            Criteria.where("timestamp").is(after.timestamp()).and("_id").lt(after.id())));
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a == null || b.isBefore(a) ? b : a;
+    }
+
+    public static String encodeCursor(LogEntry last) {
+        String position = last.getTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Position decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            return new Position(LocalDateTime.parse(position[0]), new ObjectId(position[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.logservice.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.model.LogRollup;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * LogRollupService: per-service entry counts by minute and by hour.
+ * Counts are bumped in memory as entries are written and flushed periodically with one bulk of
+ * upserts ($inc) into the log_rollups collection, so stats queries read a few small rollup
+ * documents instead of counting LogEntry documents.
+ */
+@Service
+public class LogRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(LogRollupService.class);
+
+    public static final String MINUTE = "minute";
+    public static final String HOUR = "hour";
+
+    /** A pending counter: one service, one granularity, one bucket. */
+    private record BucketKey(String service, String granularity, LocalDateTime bucketStart) {
+        String id() {
+            return service + "|" + granularity + "|" + bucketStart;
+        }
+    }
+
+    /** One point of a stats series. */
+    public record StatsPoint(String service, LocalDateTime bucketStart, long count) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<BucketKey, AtomicLong> pending = new ConcurrentHashMap<>();
+
+    public LogRollupService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Count entries that were just written. Called on the ingest path; only touches memory.
+     */
+    public void record(List<LogEntry> entries) {
+        for (LogEntry entry : entries) {
+            String service = entry.getService() == null ? "unknown" : entry.getService();
+            LocalDateTime timestamp = entry.getTimestamp();
+            increment(new BucketKey(service, MINUTE, timestamp.truncatedTo(ChronoUnit.MINUTES)));
+            increment(new BucketKey(service, HOUR, timestamp.truncatedTo(ChronoUnit.HOURS)));
+        }
+    }
+
+    private void increment(BucketKey key) {
+        pending.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Upsert the counts gathered since the last flush. On failure the counts are put back and
+     * retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${logs.rollup.flush-interval-ms:5000}")
+    public void flush() {
+        Map<BucketKey, Long> deltas = new HashMap<>();
+        for (Map.Entry<BucketKey, AtomicLong> counter : pending.entrySet()) {
+            long delta = counter.getValue().getAndSet(0);
+            if (delta > 0) {
+                deltas.put(counter.getKey(), delta);
+            }
+        }
+        evictIdleBuckets();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LogRollup.class);
+            for (Map.Entry<BucketKey, Long> delta : deltas.entrySet()) {
+                BucketKey key = delta.getKey();
+                bulk.upsert(Query.query(Criteria.where("_id").is(key.id())), new Update()
+                    .setOnInsert("service", key.service())
+                    .setOnInsert("granularity", key.granularity())
+                    .setOnInsert("bucketStart", key.bucketStart())
+                    .inc("count", delta.getValue()));
+            }
+            bulk.execute();
+        } catch (RuntimeException e) {
+            deltas.forEach(this::restore);
+            log.warn("Rollup flush of {} buckets failed: {}", deltas.size(), e.getMessage());
+        }
+    }
+
+    private void restore(BucketKey key, long delta) {
+        pending.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    /**
+     * Drop zeroed counters for buckets that closed more than an hour ago, so the map only holds
+     * recent buckets. A late entry for such a bucket simply creates a new counter.
+     */
+    private void evictIdleBuckets() {
+        LocalDateTime cutoff = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        pending.entrySet().removeIf(counter ->
+            counter.getKey().bucketStart().isBefore(cutoff) && counter.getValue().get() == 0);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Counts per bucket in [from, to) from the rollup collection, plus whatever is still pending
+     * in memory so the newest bucket is current. Service null means every service.
+     */
+    public List<StatsPoint> stats(String service, String granularity, LocalDateTime from, LocalDateTime to) {
+        Criteria criteria = Criteria.where("granularity").is(granularity);
+        if (service != null && !service.isEmpty()) {
+            criteria.and("service").is(service);
+        }
+        criteria.and("bucketStart").gte(from).lt(to);
+        Query query = Query.query(criteria).with(Sort.by("service", "bucketStart"));
+
+        Map<BucketKey, Long> counts = new TreeMap<>(
+            Comparator.comparing(BucketKey::service).thenComparing(BucketKey::bucketStart));
+        for (LogRollup rollup : mongoTemplate.find(query, LogRollup.class)) {
+            counts.merge(new BucketKey(rollup.getService(), granularity, rollup.getBucketStart()), rollup.getCount(), Long::sum);
+        }
+        pending.forEach((key, counter) -> {
+            long delta = counter.get();
+            if (delta > 0 && key.granularity().equals(granularity)
+                    && (service == null || service.isEmpty() || key.service().equals(service))
+                    && !key.bucketStart().isBefore(from) && key.bucketStart().isBefore(to)) {
+                counts.merge(key, delta, Long::sum);
+            }
+        });
+
+        List<StatsPoint> points = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> points.add(new StatsPoint(key.service(), key.bucketStart(), count)));
+        return points;
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.logservice.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.logservice.model.LogEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * LogSpool: durable, segmented append-only spool of log entries on local disk.
+ *
+ * Entries are appended as JSON records to memory-mapped segment files (segment-0000000001.spool,
+ * ...) of a fixed size; a full segment is sealed and the next one created. Each record is
+ * [int length][int crc32][payload]; an unwritten slot reads as length 0 because new segments are
+ * zero-filled. A single reader drains records in order with {@link #read}, and {@link #commit}
+ * persists the read position to the checkpoint file and deletes segments that are fully drained;
+ * {@link #rewind} goes back to the last checkpoint when writing a batch downstream failed.
+ *
+ * On open the spool resumes from the checkpoint and finds the end of the newest segment by
+ * scanning records until the first empty slot or CRC mismatch (a write torn by a crash), which
+ * is discarded. Records are written to the page cache on append, so they survive a process
+ * crash; {@link #force} flushes them to the device to survive power loss as well. A segment is
+ * flushed when it is sealed, so {@link #force} only ever has the segment being written left to do.
+ *
+ * Every entry is given an id before it is spooled, so if the process dies between writing a
+ * batch downstream and committing the checkpoint, the replayed entries are duplicate-key
+ * rejections rather than duplicate documents.
+ *
+ * Appends and reads are serialized by a lock; there must be only one reader. The segment size
+ * must not be changed while the spool directory still holds segments. A ReentrantLock rather than
+ * synchronized: appends come from request threads, which may be virtual, and a virtual thread
+ * waiting on a monitor pins its carrier thread while the holder is blocked in I/O.
+ */
+public class LogSpool implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(LogSpool.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final ObjectMapper objectMapper;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long writeSegment;
+    private int writePosition;
+    private long readSegment;
+    private int readPosition;
+    private long checkpointSegment;
+    private int checkpointPosition;
+
+    public LogSpool(Path dir, int segmentSize, int maxSegments, ObjectMapper objectMapper) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.objectMapper = objectMapper;
+        Files.createDirectories(dir);
+        recover();
+    }
+
+    private void recover() throws IOException {
+        Path checkpoint = dir.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint)) {
+            String[] position = Files.readString(checkpoint).trim().split(" ");
+            checkpointSegment = Long.parseLong(position[0]);
+            checkpointPosition = Integer.parseInt(position[1]);
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Long index = segmentIndex(file);
+                if (index == null) continue;
+                if (index < checkpointSegment) {
+                    Files.delete(file);
+                } else {
+                    segments.put(index, map(file));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            checkpointSegment = Math.max(checkpointSegment, 1);
+            checkpointPosition = 0;
+            segments.put(checkpointSegment, map(segmentPath(checkpointSegment)));
+        } else if (segments.firstKey() > checkpointSegment) {
+            // The checkpointed segment was already deleted; start at the oldest one left.
+            checkpointSegment = segments.firstKey();
+            checkpointPosition = 0;
+        }
+        writeSegment = segments.lastKey();
+        MappedByteBuffer active = segments.get(writeSegment);
+        writePosition = scanEnd(active, writeSegment == checkpointSegment ? checkpointPosition : 0);
+        // Zero whatever a torn write left behind so it can never be mistaken for a record.
+        for (int i = writePosition; i < Math.min(segmentSize, writePosition + HEADER_BYTES); i++) {
+            active.put(i, (byte) 0);
+        }
+        readSegment = checkpointSegment;
+        readPosition = checkpointPosition;
+    }
+
+    /**
+     * Append entries. Returns false, appending nothing, when the spool has reached max-segments.
+     */
+    public boolean append(List<LogEntry> entries) throws IOException {
+        // Encoding needs no lock; only the write position is shared.
+        List<byte[]> records = new ArrayList<>(entries.size());
+        long bytes = 0;
+        for (LogEntry entry : entries) {
+            if (entry.getId() == null) {
+                entry.setId(new ObjectId().toHexString());
+            }
+            byte[] payload = objectMapper.writeValueAsBytes(entry);
+            if (payload.length > segmentSize - HEADER_BYTES) {
+                throw new IllegalArgumentException("Log entry of " + payload.length + " bytes does not fit in a spool segment");
+            }
+            records.add(payload);
+            bytes += HEADER_BYTES + payload.length;
+        }
+        lock.lock();
+        try {
+            return write(records, bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean write(List<byte[]> records, long bytes) throws IOException {
+        long free = (long) (maxSegments - (writeSegment - checkpointSegment + 1)) * segmentSize
+            + (segmentSize - writePosition);
+        if (bytes > free) {
+            return false;
+        }
+        for (byte[] payload : records) {
+            if (writePosition + HEADER_BYTES + payload.length > segmentSize) {
+                MappedByteBuffer sealed = segments.get(writeSegment);
+                if (writePosition + 4 <= segmentSize) {
+                    sealed.putInt(writePosition, 0);
+                }
+                // Periodic force() only covers the segment being written, so a sealed segment is
+                // flushed here, once per segment-size of appends, before writing moves on.
+                sealed.force();
+                writeSegment++;
+                writePosition = 0;
+                segments.put(writeSegment, map(segmentPath(writeSegment)));
+            }
+            MappedByteBuffer segment = segments.get(writeSegment);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            // Payload and CRC first, length last: a record is only visible once it is complete.
+            segment.put(writePosition + HEADER_BYTES, payload);
+            segment.putInt(writePosition + 4, (int) crc.getValue());
+            segment.putInt(writePosition, payload.length);
+            writePosition += HEADER_BYTES + payload.length;
+        }
+        return true;
+    }
+
+    /**
+     * Read up to max entries after the read position and advance it. The position is only made
+     * durable by {@link #commit}.
+     */
+    public List<LogEntry> read(int max) throws IOException {
+        lock.lock();
+        try {
+            return readLocked(max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<LogEntry> readLocked(int max) throws IOException {
+        List<LogEntry> entries = new ArrayList<>();
+        while (entries.size() < max) {
+            boolean active = readSegment == writeSegment;
+            if (active && readPosition >= writePosition) {
+                break;
+            }
+            MappedByteBuffer segment = segments.get(readSegment);
+            int length = readPosition + HEADER_BYTES <= segmentSize ? segment.getInt(readPosition) : 0;
+            byte[] payload = length > 0 && readPosition + HEADER_BYTES + length <= segmentSize
+                ? new byte[length] : null;
+            if (payload != null) {
+                segment.get(readPosition + HEADER_BYTES, payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != segment.getInt(readPosition + 4)) {
+                    log.warn("Corrupt record in spool segment {} at {}, skipping rest of segment", readSegment, readPosition);
+                    payload = null;
+                }
+            }
+            if (payload == null) {
+                if (active) break;
+                readSegment++;
+                readPosition = 0;
+                continue;
+            }
+            entries.add(objectMapper.readValue(payload, LogEntry.class));
+            readPosition += HEADER_BYTES + length;
+        }
+        return entries;
+    }
+
+    /**
+     * Make everything read so far durable and delete segments that are fully drained.
+     */
+    public void commit() throws IOException {
+        lock.lock();
+        try {
+            commitLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void commitLocked() throws IOException {
+        if (readSegment == checkpointSegment && readPosition == checkpointPosition) {
+            return;
+        }
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(tmp, readSegment + " " + readPosition, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SYNC);
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        checkpointSegment = readSegment;
+        checkpointPosition = readPosition;
+        while (segments.firstKey() < checkpointSegment) {
+            Map.Entry<Long, MappedByteBuffer> drained = segments.pollFirstEntry();
+            Files.deleteIfExists(segmentPath(drained.getKey()));
+        }
+    }
+
+    /**
+     * Go back to the last checkpoint, so the next read returns the uncommitted entries again.
+     */
+    public void rewind() {
+        lock.lock();
+        try {
+            readSegment = checkpointSegment;
+            readPosition = checkpointPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bytes appended but not yet committed as drained.
+     */
+    public long backlogBytes() {
+        lock.lock();
+        try {
+            return (writeSegment - checkpointSegment) * (long) segmentSize + writePosition - checkpointPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flush the segment being written to the storage device. The flush itself runs outside the
+     * lock so appends are not held up by the device.
+     */
+    public void force() {
+        MappedByteBuffer active;
+        lock.lock();
+        try {
+            active = segments.get(writeSegment);
+        } finally {
+            lock.unlock();
+        }
+        active.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private int scanEnd(MappedByteBuffer segment, int from) {
+        int position = from;
+        while (position + HEADER_BYTES <= segmentSize) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segmentSize) break;
+            byte[] payload = new byte[length];
+            segment.get(position + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.getInt(position + 4)) break;
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return dir.resolve(String.format("segment-%010d.spool", index));
+    }
+
+    private static Long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith("segment-") || !name.endsWith(".spool")) return null;
+        try {
+            return Long.parseLong(name.substring("segment-".length(), name.length() - ".spool".length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.logservice.spool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.service.LogIngestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * LogSpoolService: with logs.spool.enabled, ingest appends entries to the local {@link LogSpool}
+ * and returns; a drainer thread replays the spool into MongoDB in batches and commits the
+ * checkpoint after every successful batch. If MongoDB is slow or down, ingest latency is still
+ * that of a local append: the drainer backs off and retries while the spool grows, up to
+ * max-segments, after which appends are refused. A separate thread flushes the spool to the
+ * device every fsync-interval-ms, so appends keep being made durable while the drainer is stuck
+ * in a MongoDB call.
+ */
+@Service
+public class LogSpoolService {
+
+    private static final Logger log = LoggerFactory.getLogger(LogSpoolService.class);
+
+    private final LogIngestService logIngestService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int drainBatchSize;
+    private final long fsyncIntervalMillis;
+    private final long maxBackoffMillis;
+    private final Counter appended;
+    private final Counter drained;
+    private final Counter refused;
+    private final MeterRegistry meterRegistry;
+    private volatile boolean running = true;
+    private LogSpool spool;
+    private Thread drainer;
+    private ScheduledExecutorService fsync;
+
+    public LogSpoolService(LogIngestService logIngestService,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${logs.spool.enabled:false}") boolean enabled,
+                           @Value("${logs.spool.dir:spool}") String dir,
+                           @Value("${logs.spool.segment-size:67108864}") int segmentSize,
+                           @Value("${logs.spool.max-segments:64}") int maxSegments,
+                           @Value("${logs.spool.drain-batch-size:1000}") int drainBatchSize,
+                           @Value("${logs.spool.fsync-interval-ms:1000}") long fsyncIntervalMillis,
+                           @Value("${logs.spool.max-backoff-ms:30000}") long maxBackoffMillis) {
+        this.logIngestService = logIngestService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.drainBatchSize = drainBatchSize;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.appended = Counter.builder("logs.spool.appended")
+            .description("Log entries appended to the local spool")
+            .register(meterRegistry);
+        this.drained = Counter.builder("logs.spool.drained")
+            .description("Spooled log entries written to MongoDB")
+            .register(meterRegistry);
+        this.refused = Counter.builder("logs.spool.refused")
+            .description("Log entries refused because the spool reached max-segments")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        spool = new LogSpool(dir, segmentSize, maxSegments, objectMapper);
+        Gauge.builder("logs.spool.backlog.bytes", spool, LogSpool::backlogBytes)
+            .description("Bytes in the spool not yet written to MongoDB")
+            .register(meterRegistry);
+        drainer = Thread.ofPlatform().name("log-spool-drainer").daemon().start(this::drainLoop);
+        fsync = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("log-spool-fsync").daemon().factory());
+        fsync.scheduleWithFixedDelay(this::force, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+            drainer.join(TimeUnit.SECONDS.toMillis(10));
+            fsync.shutdown();
+            fsync.awaitTermination(10, TimeUnit.SECONDS);
+            spool.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append entries to the spool; they are written to MongoDB by the drainer.
+     * @return false if the spool is full; the caller should shed load (HTTP 429)
+     */
+    public boolean append(List<LogEntry> entries) {
+        for (LogEntry entry : entries) {
+            if (entry.getTimestamp() == null) {
+                entry.setTimestamp(LocalDateTime.now());
+            }
+        }
+        try {
+            if (!spool.append(entries)) {
+                refused.increment(entries.size());
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        appended.increment(entries.size());
+        return true;
+    }
+
+    private void force() {
+        try {
+            spool.force();
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled task it would cancel every later flush.
+            log.warn("Spool fsync failed, retrying in {} ms: {}", fsyncIntervalMillis, e.getMessage());
+        }
+    }
+
+    private void drainLoop() {
+        long backoffMillis = 100;
+        while (running) {
+            try {
+                List<LogEntry> batch = spool.read(drainBatchSize);
+                if (batch.isEmpty()) {
+                    Thread.sleep(50);
+                    continue;
+                }
+                try {
+                    logIngestService.insertReplayed(batch);
+                } catch (RuntimeException e) {
+                    spool.rewind();
+                    log.warn("Spool drain of {} entries failed, retrying in {} ms: {}", batch.size(), backoffMillis, e.getMessage());
+                    Thread.sleep(backoffMillis);
+                    backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+                    continue;
+                }
+                spool.commit();
+                drained.increment(batch.size());
+                backoffMillis = 100;
+            } catch (InterruptedException e) {
+                // Shutting down: whatever is left stays in the spool for the next start.
+                return;
+            } catch (IOException e) {
+                log.warn("Spool I/O error, retrying in {} ms: {}", backoffMillis, e.getMessage());
+                spool.rewind();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.logservice.perf;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.perf.LatencyReport;
+import com.example.perf.OpenLoad;
+import com.example.perf.PerfBaseline;
+
+import de.bwaldvogel.mongo.MongoServer;
+
+/**
+ * Latency of POST /logs/add (direct insert) under open-model load, with the service running
+ * in-process against an in-JVM MongoDB wire-protocol server (mongo-java-server). The RabbitMQ
+ * listener is not started; nothing else needs the broker.
+ *
+ * Run with mvn -Pperf verify. Rate and durations: -Dperf.logs.add-rate (requests/s),
+ * -Dperf.warmup-seconds, -Dperf.duration-seconds.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    // mongo-java-server has no text indexes; the perf run only writes.
+    "spring.data.mongodb.auto-index-creation=false",
+    "spring.rabbitmq.listener.simple.auto-startup=false"
+})
+class LogPerfIT {
+
+    private static MongoServer mongo;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        mongo = new MongoServer(MongoStandIn.backend());
+        InetSocketAddress address = mongo.bind();
+        registry.add("spring.data.mongodb.uri",
+            () -> "mongodb://localhost:" + address.getPort() + "/logs_db");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        if (mongo != null) {
+            mongo.shutdownNow();
+        }
+    }
+
+    @Test
+    void addLatency() throws Exception {
+        URI add = URI.create("http://localhost:" + port + "/logs/add");
+        LatencyReport report;
+        try (OpenLoad load = new OpenLoad()) {
+            report = load.run("logs.add",
+                Double.parseDouble(System.getProperty("perf.logs.add-rate", "250")),
+                Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 10)),
+                Duration.ofSeconds(Long.getLong("perf.duration-seconds", 30)),
+                i -> logRequest(add, i));
+        }
+        new PerfBaseline(Path.of("src/test/resources/perf-baseline.properties"))
+            .verify(List.of(report), Path.of("target/perf"));
+    }
+
+    static HttpRequest logRequest(URI add, long i) {
+        String body = "{\"service\":\"service" + (i % 10) + "\",\"level\":\"INFO\",\"message\":\"request " + i + " handled\"}";
+        return HttpRequest.newBuilder(add)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .timeout(Duration.ofSeconds(10))
+            .build();
+    }
+}
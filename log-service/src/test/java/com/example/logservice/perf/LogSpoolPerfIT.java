@@ -0,0 +1,175 @@
+package com.example.logservice.perf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.logservice.model.LogEntry;
+import com.example.perf.LatencyReport;
+import com.example.perf.OpenLoad;
+import com.example.perf.PerfBaseline;
+
+import de.bwaldvogel.mongo.MongoServer;
+
+/**
+ * The spool under a MongoDB outage: /logs/add is driven at a steady rate while MongoDB is down,
+ * for the whole run or for its middle third. Every entry must be accepted at the latency of a local
+ * append, and once MongoDB is back every accepted entry must arrive in it when the drainer catches
+ * up. The outage is a {@link MongoOutage} proxy cutting the service off from the stand-in.
+ * Restarting the service with a non-empty spool is covered by LogSpoolServiceTests.
+ *
+ * Run with mvn -Pperf verify; same system properties as {@link LogPerfIT}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.data.mongodb.auto-index-creation=false",
+    "spring.rabbitmq.listener.simple.auto-startup=false",
+    "logs.spool.enabled=true",
+    "logs.spool.segment-size=8388608",
+    "logs.spool.max-backoff-ms=1000"
+})
+class LogSpoolPerfIT {
+
+    private static MongoServer mongo;
+    private static MongoOutage outage;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @DynamicPropertySource
+    static void standInProperties(DynamicPropertyRegistry registry) throws IOException {
+        mongo = new MongoServer(MongoStandIn.backend());
+        InetSocketAddress address = mongo.bind();
+        outage = new MongoOutage(address.getPort());
+        // Fail fast while MongoDB is down so the drainer backs off instead of blocking for 30 s.
+        registry.add("spring.data.mongodb.uri",
+            () -> "mongodb://127.0.0.1:" + outage.port() + "/logs_db?serverSelectionTimeoutMS=2000");
+        Path spool = Files.createTempDirectory("log-spool");
+        registry.add("logs.spool.dir", spool::toString);
+    }
+
+    @AfterAll
+    static void stopMongo() throws IOException {
+        if (outage != null) {
+            outage.close();
+        }
+        if (mongo != null) {
+            mongo.shutdownNow();
+        }
+    }
+
+    @Test
+    void ingestSurvivesMongoOutage() throws Exception {
+        long before = awaitStored(0);
+        outage.stop();
+
+        URI add = URI.create("http://localhost:" + port + "/logs/add");
+        AtomicLong posted = new AtomicLong();
+        LatencyReport report;
+        try (OpenLoad load = new OpenLoad()) {
+            report = load.run("logs.add.spool.mongo-down",
+                Double.parseDouble(System.getProperty("perf.logs.add-rate", "250")),
+                Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 10)),
+                Duration.ofSeconds(Long.getLong("perf.duration-seconds", 30)),
+                i -> {
+                    posted.incrementAndGet();
+                    return LogPerfIT.logRequest(add, i);
+                });
+        }
+
+        outage.start();
+        long stored = awaitStored(before + posted.get()) - before;
+        assertEquals(posted.get(), stored, "entries accepted while MongoDB was down vs. entries drained into it");
+
+        new PerfBaseline(Path.of("src/test/resources/perf-baseline.properties"))
+            .verify(List.of(report), Path.of("target/perf"));
+    }
+
+    // MongoDB goes away while the load is running, with a drain batch possibly in flight, and comes
+    // back a third of the run later.
+    @Test
+    void ingestSurvivesMongoOutageMidRun() throws Exception {
+        long before = awaitStored(0);
+        Duration warmup = Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("perf.duration-seconds", 30));
+        ScheduledExecutorService schedule = Executors.newSingleThreadScheduledExecutor();
+        schedule.schedule(() -> toggle(false), warmup.plus(duration.dividedBy(3)).toMillis(), TimeUnit.MILLISECONDS);
+        schedule.schedule(() -> toggle(true), warmup.plus(duration.dividedBy(3).multipliedBy(2)).toMillis(), TimeUnit.MILLISECONDS);
+
+        URI add = URI.create("http://localhost:" + port + "/logs/add");
+        AtomicLong posted = new AtomicLong();
+        LatencyReport report;
+        try (OpenLoad load = new OpenLoad()) {
+            report = load.run("logs.add.spool.mongo-outage",
+                Double.parseDouble(System.getProperty("perf.logs.add-rate", "250")), warmup, duration,
+                i -> {
+                    posted.incrementAndGet();
+                    return LogPerfIT.logRequest(add, i);
+                });
+        }
+        schedule.shutdown();
+        assertTrue(schedule.awaitTermination(1, TimeUnit.MINUTES));
+
+        long stored = awaitStored(before + posted.get()) - before;
+        assertEquals(posted.get(), stored, "entries accepted around the outage vs. entries drained into MongoDB");
+
+        new PerfBaseline(Path.of("src/test/resources/perf-baseline.properties"))
+            .verify(List.of(report), Path.of("target/perf"));
+    }
+
+    private static void toggle(boolean up) {
+        try {
+            if (up) {
+                outage.start();
+            } else {
+                outage.stop();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Wait for the drainer to catch up; returns the entries in MongoDB. */
+    private long awaitStored(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        long stored;
+        while ((stored = storedEntries()) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(500);
+        }
+        return stored;
+    }
+
+    /** Entries in MongoDB, or -1 while the client has not reconnected yet. */
+    private long storedEntries() {
+        try {
+            return mongoTemplate.count(new Query(), LogEntry.class);
+        } catch (DataAccessResourceFailureException e) {
+            return -1;
+        }
+    }
+}
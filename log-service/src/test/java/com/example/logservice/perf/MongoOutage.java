@@ -0,0 +1,105 @@
+package com.example.logservice.perf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A TCP proxy between the service and the MongoDB stand-in that can take MongoDB away: {@link #stop}
+ * refuses new connections and cuts the open ones, as a MongoDB that went down would, and
+ * {@link #start} lets connections through again, to the same data. (Restarting mongo-java-server
+ * on the same backend cannot stand in for this: it silently drops writes after the restart.)
+ */
+final class MongoOutage implements Closeable {
+
+    private final int mongoPort;
+    private final int port;
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+    private ServerSocket listener;
+
+    MongoOutage(int mongoPort) throws IOException {
+        this.mongoPort = mongoPort;
+        this.port = listen(0);
+    }
+
+    /** The port to give the service instead of MongoDB's. */
+    int port() {
+        return port;
+    }
+
+    synchronized void stop() throws IOException {
+        if (listener != null) {
+            listener.close();
+            listener = null;
+        }
+        for (Socket socket : open) {
+            socket.close();
+        }
+    }
+
+    synchronized void start() throws IOException {
+        if (listener == null) {
+            listen(port);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+    }
+
+    private int listen(int onPort) throws IOException {
+        ServerSocket server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), onPort));
+        listener = server;
+        Thread.ofVirtual().name("mongo-outage-accept").start(() -> {
+            while (true) {
+                Socket client;
+                try {
+                    client = server.accept();
+                } catch (IOException e) {
+                    return;
+                }
+                try {
+                    Socket mongo = new Socket(InetAddress.getLoopbackAddress(), mongoPort);
+                    open.add(client);
+                    open.add(mongo);
+                    Thread.ofVirtual().start(() -> pipe(client, mongo));
+                    Thread.ofVirtual().start(() -> pipe(mongo, client));
+                } catch (IOException e) {
+                    close(client);
+                }
+            }
+        });
+        return server.getLocalPort();
+    }
+
+    /** Copy from one socket to the other until either side closes, then close both. */
+    private void pipe(Socket from, Socket to) {
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            // Cut by stop(), or closed by the other direction.
+        } finally {
+            close(from);
+            close(to);
+        }
+    }
+
+    private void close(Socket socket) {
+        open.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.logservice.perf;
+
+import java.util.List;
+
+import de.bwaldvogel.mongo.MongoBackend;
+import de.bwaldvogel.mongo.MongoVersion;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+/**
+ * The in-JVM MongoDB stand-in of the perf suites: mongo-java-server's in-memory backend. It
+ * announces itself as MongoDB 4.2 (wire version 8), the oldest server the 5.x driver accepts;
+ * by default it claims 3.6 and every operation fails with MongoIncompatibleDriverException.
+ */
+final class MongoStandIn {
+
+    private static final MongoVersion MONGO_4_2 = new MongoVersion() {
+        @Override
+        public List<Integer> getVersionArray() {
+            return List.of(4, 2, 0);
+        }
+
+        @Override
+        public int getWireVersion() {
+            return 8;
+        }
+    };
+
+    private MongoStandIn() {
+    }
+
+    static MongoBackend backend() {
+        return new MemoryBackend().version(MONGO_4_2);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.logservice.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.service.LogPartitionService;
+import com.example.logservice.service.LogQueryService.LogFilter;
+import com.example.logservice.service.LogQueryService.LogPage;
+
+/**
+ * MemoryLogSearchIndex with MongoDB stubbed: the stub returns every stored entry and the index
+ * keeps the ones it asked for.
+ */
+class MemoryLogSearchIndexTests {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 1, 12, 0);
+    private static final LogFilter ANY = new LogFilter(null, null, null, null);
+
+    private final List<LogEntry> stored = new ArrayList<>();
+    private MemoryLogSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(LogEntry.class), anyString())).thenAnswer(invocation -> List.copyOf(stored));
+        LogPartitionService partitions = mock(LogPartitionService.class);
+        when(partitions.collectionOf(any(), any())).thenReturn("logs");
+        // Segments of three entries, so matches span several segments.
+        index = new MemoryLogSearchIndex(mongoTemplate, partitions, 3, 10);
+    }
+
+    @Test
+    void multiTermQueryMatchesOnlyEntriesWithEveryTerm() {
+        add("payment timeout for order 1", 0);
+        add("payment accepted", 1);
+        add("timeout talking to inventory", 2);
+        add("Timeout: payment service", 3);
+        add("order 2 shipped", 4);
+        add("retry after payment gateway timeout", 5);
+
+        assertEquals(List.of("retry after payment gateway timeout", "Timeout: payment service", "payment timeout for order 1"),
+            messages(search("payment timeout")));
+        assertEquals(List.of("payment timeout for order 1"), messages(search("timeout payment order")));
+        assertEquals(List.of(), messages(search("payment shipped")));
+        assertEquals(List.of(), messages(search("payment unknown")));
+    }
+
+    @Test
+    void phraseNeedsItsTokensInOrder() {
+        add("payment timeout", 0);
+        add("timeout of payment", 1);
+
+        assertEquals(List.of("payment timeout"), messages(search("\"payment timeout\"")));
+    }
+
+    @Test
+    void pagesContinueAfterTheCursor() {
+        for (int i = 0; i < 5; i++) {
+            add("disk full " + i, i);
+        }
+
+        LogPage first = index.search(SearchQuery.parse("disk full"), ANY, null, 3);
+        assertEquals(List.of("disk full 4", "disk full 3", "disk full 2"), messages(first));
+        LogPage second = index.search(SearchQuery.parse("disk full"), ANY, first.nextCursor(), 3);
+        assertEquals(List.of("disk full 1", "disk full 0"), messages(second));
+        assertNull(second.nextCursor());
+    }
+
+    private void add(String message, int minute) {
+        LogEntry entry = new LogEntry("billing", message, NOON.plusMinutes(minute));
+        entry.setId(new ObjectId().toHexString());
+        stored.add(entry);
+        index.index(List.of(entry));
+    }
+
+    private LogPage search(String q) {
+        return index.search(SearchQuery.parse(q), ANY, null, 10);
+    }
+
+    private static List<String> messages(LogPage page) {
+        return page.entries().stream().map(LogEntry::getMessage).toList();
+    }
+}
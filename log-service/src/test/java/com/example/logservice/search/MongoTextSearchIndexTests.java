@@ -0,0 +1,117 @@
+package com.example.logservice.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.service.LogQueryService;
+import com.example.logservice.service.LogQueryService.LogFilter;
+import com.example.logservice.service.LogQueryService.LogPage;
+
+/**
+ * The time windows of MongoTextSearchIndex, over a stubbed LogQueryService that serves every
+ * window from a list of matching entries.
+ */
+class MongoTextSearchIndexTests {
+
+    private final List<LogEntry> matches = new ArrayList<>();
+    private final List<LogFilter> windows = new ArrayList<>();
+    private MongoTextSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        LogQueryService logQueryService = mock(LogQueryService.class);
+        when(logQueryService.read(any(), any(), isNull(), anyInt())).thenAnswer(invocation -> {
+            LogFilter window = invocation.getArgument(0);
+            int limit = invocation.getArgument(3);
+            windows.add(window);
+            List<LogEntry> found = matches.stream()
+                .filter(entry -> window.from() == null || !entry.getTimestamp().isBefore(window.from()))
+                .filter(entry -> window.to() == null || entry.getTimestamp().isBefore(window.to()))
+                .sorted(LogQueryService.NEWEST_FIRST_ORDER)
+                .toList();
+            return found.size() <= limit
+                ? new LogPage(found, null)
+                : new LogPage(found.subList(0, limit), LogQueryService.encodeCursor(found.get(limit - 1)));
+        });
+        index = new MongoTextSearchIndex(logQueryService);
+    }
+
+    @Test
+    void recentMatchesAreFoundInTheFirstWindow() {
+        for (int i = 1; i <= 5; i++) {
+            add(LocalDateTime.now().minusMinutes(i));
+        }
+
+        LogPage page = index.search(SearchQuery.parse("timeout"), new LogFilter(null, null, null, null), null, 3);
+
+        assertEquals(3, page.entries().size());
+        assertEquals(1, windows.size());
+        assertNull(windows.get(0).to());
+    }
+
+    @Test
+    void olderWindowsFillThePage() {
+        LocalDateTime now = LocalDateTime.now();
+        add(now.minusMinutes(10));
+        add(now.minusHours(3));
+        add(now.minusDays(400));
+
+        LogPage page = index.search(SearchQuery.parse("timeout"), new LogFilter(null, null, null, null), null, 10);
+
+        assertEquals(3, page.entries().size());
+        assertNull(page.nextCursor());
+        assertEquals(MongoTextSearchIndex.BOUNDED_WINDOWS + 1, windows.size());
+        assertNull(windows.get(windows.size() - 1).from(), "the last window is open-ended");
+        for (int i = 1; i < windows.size(); i++) {
+            assertEquals(windows.get(i - 1).from(), windows.get(i).to(), "windows are contiguous");
+        }
+        assertTrue(page.entries().get(0).getTimestamp().isAfter(page.entries().get(1).getTimestamp()));
+    }
+
+    @Test
+    void searchStopsAtTheFromBound() {
+        LocalDateTime now = LocalDateTime.now();
+        add(now.minusHours(2));
+        add(now.minusHours(30));
+
+        LogPage page = index.search(SearchQuery.parse("timeout"), new LogFilter(null, null, now.minusHours(10), null), null, 10);
+
+        assertEquals(1, page.entries().size());
+        assertEquals(3, windows.size());
+        assertEquals(now.minusHours(10), windows.get(2).from());
+    }
+
+    @Test
+    void pageFilledAcrossWindowsHasACursor() {
+        LocalDateTime now = LocalDateTime.now();
+        add(now.minusMinutes(10));
+        add(now.minusHours(2));
+        add(now.minusHours(3));
+
+        LogPage page = index.search(SearchQuery.parse("timeout"), new LogFilter(null, null, null, null), null, 2);
+
+        assertEquals(2, page.entries().size());
+        assertEquals(LogQueryService.encodeCursor(page.entries().get(1)), page.nextCursor());
+    }
+
+    private void add(LocalDateTime timestamp) {
+        LogEntry entry = new LogEntry("billing", "timeout", timestamp);
+        entry.setId(new ObjectId().toHexString());
+        matches.add(entry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.logservice.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SearchQueryTests {
+
+    @Test
+    void bareWordsAreLowerCaseTerms() {
+        SearchQuery query = SearchQuery.parse("Timeout  PAYMENT");
+
+        assertEquals(List.of("timeout", "payment"), query.terms());
+        assertEquals(List.of(), query.phrases());
+    }
+
+    @Test
+    void quotedTextIsAPhrase() {
+        SearchQuery query = SearchQuery.parse("error \"Connection Refused\" db");
+
+        assertEquals(List.of("error", "db"), query.terms());
+        assertEquals(List.of("connection refused"), query.phrases());
+        assertEquals(List.of("error", "db", "connection", "refused"), query.allTokens());
+    }
+
+    // The tokenizer splits an email address into john, example and com; as three terms it would
+    // also match "john wrote to bob@example.com".
+    @Test
+    void bareWordOfSeveralTokensIsAPhrase() {
+        SearchQuery query = SearchQuery.parse("John@Example.com");
+
+        assertEquals(List.of(), query.terms());
+        assertEquals(List.of("john@example.com"), query.phrases());
+        assertTrue(query.phrasesMatch("Mail sent to john@example.com"));
+        assertFalse(query.phrasesMatch("john wrote to bob@example.com"));
+    }
+
+    @Test
+    void quotedSingleTokenIsATerm() {
+        SearchQuery query = SearchQuery.parse("\" retry \"");
+
+        assertEquals(List.of("retry"), query.terms());
+        assertEquals(List.of(), query.phrases());
+    }
+
+    @Test
+    void blankAndSeparatorOnlyQueriesAreEmpty() {
+        assertTrue(SearchQuery.parse(null).isEmpty());
+        assertTrue(SearchQuery.parse("   ").isEmpty());
+        assertTrue(SearchQuery.parse("\"\" -- !!").isEmpty());
+    }
+
+    @Test
+    void tokenizeSplitsOnEverythingButLettersAndDigits() {
+        assertEquals(List.of("user", "42", "größe", "ok"), SearchQuery.tokenize("User-42: Größe=OK!"));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.logservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.search.LogSearchIndex;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * LogIngestService over a stubbed MongoTemplate whose unordered bulk inserts behave like
+ * MongoDB's: every entry with a new id is stored, and entries whose id is already stored come
+ * back as duplicate-key write errors at their index in the batch. (mongo-java-server accepts
+ * such bulks without reporting the duplicates, so it cannot stand in here.)
+ */
+class LogIngestServiceTests {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final Set<String> stored = new HashSet<>();
+    /** Collections whose bulk inserts fail as if their shard were down. */
+    private final Set<String> down = new HashSet<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LogPartitionService partitions;
+    private LogRollupService rollups;
+    private LogSearchIndex searchIndex;
+    private LogIngestService ingest;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(LogEntry.class), anyString()))
+            .thenAnswer(invocation -> bulk(invocation.getArgument(2)));
+        partitions = mock(LogPartitionService.class);
+        when(partitions.collectionFor(any())).thenReturn("logs");
+        rollups = new LogRollupService(mongoTemplate);
+        searchIndex = mock(LogSearchIndex.class);
+        ingest = new LogIngestService(mongoTemplate, rollups, partitions, searchIndex,
+            meterRegistry, false, 100, 100, 200);
+    }
+
+    private BulkOperations bulk(String collection) {
+        BulkOperations bulk = mock(BulkOperations.class);
+        List<LogEntry> batch = new ArrayList<>();
+        when(bulk.insert(anyList())).thenAnswer(invocation -> {
+            batch.addAll(invocation.getArgument(0));
+            return bulk;
+        });
+        when(bulk.execute()).thenAnswer(invocation -> {
+            if (down.contains(collection)) {
+                throw new DataAccessResourceFailureException(collection + " is down");
+            }
+            List<BulkWriteError> errors = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                if (!stored.add(batch.get(i).getId())) {
+                    errors.add(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), i));
+                }
+            }
+            BulkWriteResult result = BulkWriteResult.acknowledged(batch.size() - errors.size(), 0, 0, 0, List.of(), List.of());
+            if (!errors.isEmpty()) {
+                throw new BulkOperationException("Bulk write operation error",
+                    new MongoBulkWriteException(result, errors, null, new ServerAddress(), Set.of()));
+            }
+            return result;
+        });
+        return bulk;
+    }
+
+    // A crash after the insert but before the spool was acknowledged replays entries that are
+    // already stored: only the new one may be counted and indexed.
+    @Test
+    void replayCountsOnlyNewEntries() {
+        LogEntry first = spooled("first");
+        LogEntry second = spooled("second");
+        assertEquals(2, ingest.insertBatch(List.of(first, second)));
+
+        LogEntry third = spooled("third");
+        assertEquals(1, ingest.insertReplayed(List.of(first, second, third)));
+
+        List<LogRollupService.StatsPoint> minutes = rollups.stats("billing", LogRollupService.MINUTE, NOON, NOON.plusMinutes(1));
+        assertEquals(1, minutes.size());
+        assertEquals(3, minutes.get(0).count());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LogEntry>> indexed = ArgumentCaptor.forClass(List.class);
+        verify(searchIndex, times(2)).index(indexed.capture());
+        assertEquals(List.of(third), indexed.getAllValues().get(1));
+    }
+
+    // The batch spans two partitions and the second one's insert fails: the first partition's
+    // entries are stored, so they must still be counted, rolled up and indexed.
+    @Test
+    void failedPartitionDoesNotHideTheOthers() {
+        when(partitions.collectionFor(any())).thenAnswer(invocation ->
+            invocation.<LogEntry>getArgument(0).getMessage().startsWith("a") ? "logs_a" : "logs_b");
+        down.add("logs_b");
+        List<LogEntry> first = List.of(spooled("a1"), spooled("a2"), spooled("a3"));
+        List<LogEntry> second = List.of(spooled("b1"), spooled("b2"));
+        List<LogEntry> batch = new ArrayList<>(first);
+        batch.addAll(second);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> ingest.insertBatch(batch));
+
+        assertEquals(3, stored.size());
+        assertEquals(3.0, meterRegistry.counter("logs.ingest.flushed").count());
+        List<LogRollupService.StatsPoint> minutes = rollups.stats("billing", LogRollupService.MINUTE, NOON, NOON.plusMinutes(1));
+        assertEquals(3, minutes.get(0).count());
+        verify(searchIndex).index(first);
+    }
+
+    /** An entry as LogSpool hands it over: the id is assigned before the first write. */
+    private static LogEntry spooled(String message) {
+        LogEntry entry = new LogEntry("billing", message, NOON);
+        entry.setId(new ObjectId().toHexString());
+        return entry;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.logservice.spool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.logservice.model.LogEntry;
+import com.example.logservice.service.LogIngestService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * LogSpoolService across a restart, with MongoDB (LogIngestService) stubbed.
+ */
+class LogSpoolServiceTests {
+
+    private static final int ENTRIES = 1000;
+
+    @TempDir
+    Path dir;
+
+    // MongoDB accepts one batch and then goes down; the service is stopped with the rest still
+    // spooled across several segments. After a restart every entry must be drained exactly once.
+    @Test
+    void restartDrainsNonEmptySpool() throws Exception {
+        List<String> stored = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger calls = new AtomicInteger();
+        LogIngestService failing = mock(LogIngestService.class);
+        when(failing.insertReplayed(anyList())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new DataAccessResourceFailureException("MongoDB is down");
+            }
+            return store(stored, invocation.getArgument(0));
+        });
+        LogSpoolService before = newService(failing);
+        before.start();
+        for (int i = 0; i < ENTRIES; i += 10) {
+            List<LogEntry> batch = new ArrayList<>();
+            for (int j = i; j < i + 10; j++) {
+                batch.add(new LogEntry("billing", "entry " + j, LocalDateTime.now()));
+            }
+            assertTrue(before.append(batch));
+        }
+        await(() -> calls.get() > 2);
+        before.stop();
+        // The drainer runs alongside the appends, so the one batch that went in may be short.
+        assertTrue(stored.size() > 0 && stored.size() < ENTRIES);
+        assertTrue(segments() > 1, "spool left with several segments");
+
+        LogIngestService recovered = mock(LogIngestService.class);
+        when(recovered.insertReplayed(anyList())).thenAnswer(invocation -> store(stored, invocation.getArgument(0)));
+        LogSpoolService after = newService(recovered);
+        after.start();
+        await(() -> stored.size() >= ENTRIES);
+        after.stop();
+
+        assertEquals(ENTRIES, stored.size());
+        assertEquals(ENTRIES, new HashSet<>(stored).size(), "no entry drained twice");
+        assertEquals(1, segments(), "drained segments are deleted");
+    }
+
+    private LogSpoolService newService(LogIngestService logIngestService) {
+        // 16 KB segments: the 1000 entries span several of them.
+        return new LogSpoolService(logIngestService, Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(),
+            true, dir.toString(), 16 * 1024, 64, 100, 50, 100);
+    }
+
+    private static int store(List<String> stored, List<LogEntry> batch) {
+        for (LogEntry entry : batch) {
+            stored.add(entry.getId());
+        }
+        return batch.size();
+    }
+
+    private long segments() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".spool")).count();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.example.notificationservice;
 
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.example.notificationservice.config.RabbitMQConfig;
 import com.example.notificationservice.controller.SSEController;
+import com.example.notificationservice.event.UserCreatedEvent;
+import com.example.notificationservice.event.UserCreationFailedEvent;
 
 @SpringBootApplication
 @EnableRabbit
@@ -17,8 +25,10 @@ public class NotificationServiceApplication {
 }
 
 @Service
+@ConditionalOnProperty(name = "notification.listener.batch-enabled", havingValue = "false", matchIfMissing = true)
 class UserEventListener {
 
+    private static final Logger log = LoggerFactory.getLogger(UserEventListener.class);
     private final SSEController sseController;
 
     @Autowired
@@ -26,15 +36,44 @@ class UserEventListener {
         this.sseController = sseController;
     }
 
-    @RabbitListener(queues = "user.created.queue")
-    public void handleUserCreatedEvent(Object event) {
-        System.out.println("Received event: " + event);
-        sseController.sendEventToClients(event);
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
+    public void handleUserCreatedEvent(UserCreatedEvent event) {
+        log.debug("Received event: {}", event);
+        sseController.sendEventToClients(SSEController.USER_CREATED, event.getEmail(), event);
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.FAILED_QUEUE_NAME)
+        public void handleUserCreationFailedEvent(UserCreationFailedEvent event) {
+        log.debug("Received user creation failed event: {}", event);
+        sseController.sendEventToClients(SSEController.USER_CREATION_FAILED, event.getAttemptedEmail(), event);
+    }
+}
+
+/**
+ * Batch mode (notification.listener.batch-enabled=true): each call receives up to
+ * notification.listener.batch-size messages, handed to the SSE layer as one dispatch.
+ */
+@Service
+@ConditionalOnProperty(name = "notification.listener.batch-enabled", havingValue = "true")
+class BatchUserEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchUserEventListener.class);
+    private final SSEController sseController;
+
+    @Autowired
+    public BatchUserEventListener(SSEController sseController) {
+        this.sseController = sseController;
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME, containerFactory = "batchListenerContainerFactory")
+    public void handleUserCreatedEvents(List<UserCreatedEvent> events) {
+        log.debug("Received {} user created events", events.size());
+        sseController.sendEventsToClients(SSEController.USER_CREATED, events, UserCreatedEvent::getEmail);
     }
 
-    @RabbitListener(queues = "user.creation.failed.queue")
-        public void handleUserCreationFailedEvent(Object event) {
-        System.out.println("Received user creation failed event: " + event);
-        sseController.sendEventToClients(event);
+    @RabbitListener(queues = RabbitMQConfig.FAILED_QUEUE_NAME, containerFactory = "batchListenerContainerFactory")
+    public void handleUserCreationFailedEvents(List<UserCreationFailedEvent> events) {
+        log.debug("Received {} user creation failed events", events.size());
+        sseController.sendEventsToClients(SSEController.USER_CREATION_FAILED, events, UserCreationFailedEvent::getAttemptedEmail);
     }
 }
@@ -1,16 +1,44 @@
 package com.example.notificationservice.config;
 
+import java.util.Date;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.amqp.core.AmqpAdmin;
 import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.example.codec.BinaryCodec;
+import com.example.codec.BinaryMessageConverter;
+import com.example.notificationservice.event.UserCreatedEvent;
+import com.example.notificationservice.event.UserCreationFailedEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 @Configuration
 public class RabbitMQConfig {
     public static final String EXCHANGE_NAME = "user.exchange";
     public static final String QUEUE_NAME = "user.created.queue";
     public static final String ROUTING_KEY = "user.created";
+    public static final String FAILED_QUEUE_NAME = "user.creation.failed.queue";
+    public static final String FAILED_ROUTING_KEY = "user.created.failed";
 
      @Bean
     public DirectExchange userExchange() {
@@ -26,4 +54,115 @@ public class RabbitMQConfig {
     public Binding binding(Queue userCreatedQueue, DirectExchange userExchange) {
         return new Binding(QUEUE_NAME, Binding.DestinationType.QUEUE, EXCHANGE_NAME, ROUTING_KEY, null);
     }
+
+    @Bean
+    public Queue userCreationFailedQueue() {
+        return new Queue(FAILED_QUEUE_NAME);
+    }
+
+    @Bean
+    public Binding failedBinding(Queue userCreationFailedQueue, DirectExchange userExchange) {
+        return BindingBuilder.bind(userCreationFailedQueue).to(userExchange).with(FAILED_ROUTING_KEY);
+    }
+
+    /**
+     * Converts JSON or binary codec payloads (by content type) into the local event classes. The
+     * listener parameter type decides the target class; the __TypeId__ header written by the user
+     * service is mapped as a fallback. Spring Boot applies this converter to the listener container
+     * factories. This service never sends, so nothing is written in binary.
+     */
+    @Bean
+    public BinaryMessageConverter messageConverter() {
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setIdClassMapping(Map.of(
+            "com.example.user.event.UserCreatedEvent", UserCreatedEvent.class,
+            "com.example.user.event.UserCreationFailedEvent", UserCreationFailedEvent.class));
+        typeMapper.setTrustedPackages("com.example.notificationservice.event");
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        json.setJavaTypeMapper(typeMapper);
+        return new BinaryMessageConverter(new BinaryCodec(Integer.MAX_VALUE), json, payload -> false);
+    }
+
+    /**
+     * Records notification.consumer.lag for every received message: the time from the event being
+     * recorded in the user service outbox (the AMQP timestamp set by the relay) to its arrival here.
+     */
+    @Bean
+    public MessagePostProcessor consumerLagRecorder(MeterRegistry meterRegistry) {
+        Map<String, Timer> timers = new ConcurrentHashMap<>();
+        return message -> {
+            Date recordedAt = message.getMessageProperties().getTimestamp();
+            if (recordedAt != null) {
+                String queue = String.valueOf(message.getMessageProperties().getConsumerQueue());
+                timers.computeIfAbsent(queue, q -> Timer.builder("notification.consumer.lag")
+                        .description("Time from an event being recorded by the user service to its delivery here")
+                        .tag("queue", q)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry))
+                    .record(Math.max(0, System.currentTimeMillis() - recordedAt.getTime()), TimeUnit.MILLISECONDS);
+            }
+            return message;
+        };
+    }
+
+    /**
+     * notification.queue.depth: messages waiting in each consumed queue, read from the broker when
+     * the gauge is sampled.
+     */
+    @Bean
+    public MeterBinder queueDepthGauges(AmqpAdmin amqpAdmin) {
+        return meterRegistry -> {
+            for (String queue : new String[] {QUEUE_NAME, FAILED_QUEUE_NAME}) {
+                Gauge.builder("notification.queue.depth", amqpAdmin, admin -> queueDepth(admin, queue))
+                    .description("Messages waiting in the queue")
+                    .tag("queue", queue)
+                    .register(meterRegistry);
+            }
+        };
+    }
+
+    private static double queueDepth(AmqpAdmin admin, String queue) {
+        Properties properties = admin.getQueueProperties(queue);
+        Object count = properties != null ? properties.get(RabbitAdmin.QUEUE_MESSAGE_COUNT) : null;
+        return count instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+
+    /**
+     * Default container factory, as Spring Boot would configure it, plus the consumer lag recorder.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            MessagePostProcessor consumerLagRecorder) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAfterReceivePostProcessors(consumerLagRecorder);
+        return factory;
+    }
+
+    /**
+     * Container factory for batch listeners: each delivery to the listener is a list of up to
+     * batch-size messages, released early when no message arrives within batch-window-ms.
+     * Concurrency, prefetch and the converter come from spring.rabbitmq.listener.simple.*.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${notification.listener.batch-size:100}") int batchSize,
+            @Value("${notification.listener.batch-window-ms:50}") long batchWindowMillis,
+            @Value("${spring.rabbitmq.listener.simple.prefetch:250}") int prefetch,
+            MessagePostProcessor consumerLagRecorder) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAfterReceivePostProcessors(consumerLagRecorder);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchWindowMillis);
+        // A batch can only fill if the broker may push at least that many unacked messages.
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        return factory;
+    }
 }
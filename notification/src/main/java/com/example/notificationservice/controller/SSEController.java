@@ -1,33 +1,67 @@
 package com.example.notificationservice.controller;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.example.notificationservice.sse.SseFanout;
+import com.example.notificationservice.sse.SubscriptionFilter;
+
 @Controller
 @RequestMapping("/api")
 public class SSEController {
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    public static final String USER_CREATED = "user.created";
+    public static final String USER_CREATION_FAILED = "user.creation.failed";
 
-    @GetMapping("/sse/notifications")
-    public SseEmitter streamNotifications() {
-        SseEmitter emitter = new SseEmitter();
-        emitters.add(emitter);
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        return emitter;
+    private final SseFanout fanout;
+
+    public SSEController(SseFanout fanout) {
+        this.fanout = fanout;
     }
 
-    public void sendEventToClients(Object event) {
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(event);
-            } catch (Exception e) {
-                emitters.remove(emitter);
+    /**
+     * Subscribe to user events. Optional filters:
+     * types  - comma-separated event types (user.created, user.creation.failed); default all
+     * email  - only events about this user
+     * domain - only events about users with this email domain, e.g. example.com
+     *
+     * Browsers resend the id of the last event they received in the Last-Event-ID header when
+     * they reconnect; those clients are sent the events they missed before live delivery resumes.
+     */
+    @GetMapping("/sse/notifications")
+    public SseEmitter streamNotifications(@RequestParam(required = false) String types,
+                                          @RequestParam(required = false) String email,
+                                          @RequestParam(required = false) String domain,
+                                          @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Set<String> typeSet = new HashSet<>();
+        if (types != null) {
+            for (String type : types.split(",")) {
+                if (!type.isBlank()) typeSet.add(type.trim());
             }
         }
+        return fanout.subscribe(new SubscriptionFilter(typeSet, email, domain), lastEventId);
+    }
+
+    /**
+     * Hands the event to the fan-out engine and returns without waiting for any client write,
+     * so the RabbitMQ listener thread is never held up by a slow browser.
+     */
+    public void sendEventToClients(String type, String email, Object event) {
+        fanout.publish(type, email, event);
+    }
+
+    /**
+     * Hands a batch of events of one type to the fan-out engine as one dispatch.
+     */
+    public <T> void sendEventsToClients(String type, List<T> events, Function<T, String> emailOf) {
+        fanout.publishAll(type, events, emailOf);
     }
-}
\ No newline at end of file
+}
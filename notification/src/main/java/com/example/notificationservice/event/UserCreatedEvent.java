@@ -0,0 +1,37 @@
+package com.example.notificationservice.event;
+
+/**
+ * Payload published by the user service on user.created (com.example.user.event.UserCreatedEvent).
+ */
+public class UserCreatedEvent {
+    private String name;
+    private String email;
+
+    public UserCreatedEvent() {}
+
+    public UserCreatedEvent(String name, String email) {
+        this.name = name;
+        this.email = email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    @Override
+    public String toString() {
+        return "UserCreatedEvent{name='" + name + "', email='" + email + "'}";
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.notificationservice.event;
+
+/**
+ * Payload published by the user service on user.created.failed
+ * (com.example.user.event.UserCreationFailedEvent).
+ */
+public class UserCreationFailedEvent {
+    private String attemptedEmail;
+    private String reason;
+
+    public UserCreationFailedEvent() {}
+
+    public UserCreationFailedEvent(String attemptedEmail, String reason) {
+        this.attemptedEmail = attemptedEmail;
+        this.reason = reason;
+    }
+
+    public String getAttemptedEmail() {
+        return attemptedEmail;
+    }
+
+    public void setAttemptedEmail(String attemptedEmail) {
+        this.attemptedEmail = attemptedEmail;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    @Override
+    public String toString() {
+        return "UserCreationFailedEvent{attemptedEmail='" + attemptedEmail + "', reason='" + reason + "'}";
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.notificationservice.sse;
+
+/**
+ * What to do when a subscriber's buffer is full because the client reads slower than events arrive.
+ */
+public enum OverflowPolicy {
+    /** Discard the oldest buffered event to make room; the client sees a gap but stays connected. */
+    DROP_OLDEST,
+    /** Close the connection; the client is expected to reconnect. */
+    DISCONNECT
+}
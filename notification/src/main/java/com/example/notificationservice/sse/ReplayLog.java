@@ -0,0 +1,61 @@
+package com.example.notificationservice.sse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReplayLog: the most recent events, capped both by count and by age, kept in a ring buffer so
+ * that reconnecting clients can catch up on what they missed. Not thread-safe; SseFanout guards
+ * it with its publish lock.
+ */
+public class ReplayLog {
+
+    private final SseEvent[] ring;
+    private final long maxAgeMillis;
+    private int head; // index of the oldest event
+    private int size;
+
+    public ReplayLog(int capacity, long maxAgeMillis) {
+        this.ring = new SseEvent[Math.max(1, capacity)];
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public void append(SseEvent event) {
+        if (size == ring.length) {
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+        }
+        ring[(head + size) % ring.length] = event;
+        size++;
+        expire(event.timestamp());
+    }
+
+    /**
+     * Events with an id greater than lastEventId, oldest first. If lastEventId has already been
+     * evicted, everything still retained is returned.
+     */
+    public List<SseEvent> since(long lastEventId, long now) {
+        expire(now);
+        List<SseEvent> missed = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            SseEvent event = ring[(head + i) % ring.length];
+            if (event.id() > lastEventId) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void expire(long now) {
+        while (size > 0 && now - ring[head].timestamp() > maxAgeMillis) {
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+        }
+    }
+}
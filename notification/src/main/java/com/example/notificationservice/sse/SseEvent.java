@@ -0,0 +1,14 @@
+package com.example.notificationservice.sse;
+
+/**
+ * An event as delivered to SSE clients.
+ *
+ * @param id        monotonically increasing id, sent as the SSE "id" field and echoed back by
+ *                  browsers in Last-Event-ID when they reconnect
+ * @param type      event type, e.g. "user.created"; used for subscription filtering
+ * @param email     lower-cased email of the user the event is about, or null
+ * @param json      the payload, serialized once and shared by every subscriber it is sent to
+ * @param timestamp when the event was published (epoch millis)
+ */
+public record SseEvent(long id, String type, String email, String json, long timestamp) {
+}
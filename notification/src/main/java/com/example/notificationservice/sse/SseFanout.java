@@ -0,0 +1,193 @@
+package com.example.notificationservice.sse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * SseFanout: delivers every published event to all connected SSE subscribers.
+ * Publishing enqueues into each subscriber's bounded buffer and returns immediately; each
+ * subscriber's own virtual thread does the (possibly slow) network write.
+ * <p>
+ * Every event gets an increasing id and is kept in a bounded replay log. A client reconnecting
+ * with Last-Event-ID first receives the events it missed, then live events, with no gap or
+ * duplicate in between: replay and registration happen under the same lock as publishing.
+ * <p>
+ * Subscribers declare a {@link SubscriptionFilter}; a {@link SubscriptionIndex} keyed by event
+ * type and user scope means dispatch only touches matching subscribers. Each event's payload is
+ * serialized to JSON once and the same string is written to every matching client.
+ */
+@Component
+public class SseFanout {
+
+    private final SubscriptionIndex index = new SubscriptionIndex();
+    private final ObjectMapper objectMapper;
+    private final AtomicLong nextSubscriberId = new AtomicLong();
+    // Seeded from the clock so ids keep increasing across restarts and a stale Last-Event-ID
+    // from before a restart simply replays everything retained.
+    private final AtomicLong nextEventId = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final ReplayLog replayLog;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final long heartbeatMillis;
+    private final long emitterTimeoutMillis;
+    private final Counter droppedEvents;
+    private final Counter publishedEvents;
+    private final Counter replayedEvents;
+
+    public SseFanout(MeterRegistry meterRegistry,
+                     ObjectMapper objectMapper,
+                     @Value("${notification.sse.buffer-size:256}") int bufferSize,
+                     @Value("${notification.sse.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                     @Value("${notification.sse.heartbeat-ms:15000}") long heartbeatMillis,
+                     @Value("${notification.sse.timeout-ms:1800000}") long emitterTimeoutMillis,
+                     @Value("${notification.sse.replay.max-events:10000}") int replayMaxEvents,
+                     @Value("${notification.sse.replay.max-age-ms:300000}") long replayMaxAgeMillis) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.heartbeatMillis = heartbeatMillis;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.replayLog = new ReplayLog(replayMaxEvents, replayMaxAgeMillis);
+        this.droppedEvents = Counter.builder("sse.events.dropped")
+            .description("Events discarded because a subscriber buffer was full")
+            .register(meterRegistry);
+        this.publishedEvents = Counter.builder("sse.events.published")
+            .description("Events handed to the fan-out engine")
+            .register(meterRegistry);
+        this.replayedEvents = Counter.builder("sse.events.replayed")
+            .description("Missed events re-sent to clients reconnecting with Last-Event-ID")
+            .register(meterRegistry);
+        Gauge.builder("sse.connections.active", index, SubscriptionIndex::size)
+            .description("Connected SSE clients")
+            .register(meterRegistry);
+        Gauge.builder("sse.client.lag.max", this, SseFanout::maxLag)
+            .description("Largest number of events buffered for a single client")
+            .register(meterRegistry);
+        Gauge.builder("sse.client.lag.total", this, SseFanout::totalLag)
+            .description("Events buffered across all clients")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param filter      which events the client wants
+     * @param lastEventId the Last-Event-ID sent by a reconnecting client, or null for a new client
+     */
+    public SseEmitter subscribe(SubscriptionFilter filter, Long lastEventId) {
+        return subscribe(filter, lastEventId, new SseEmitter(emitterTimeoutMillis));
+    }
+
+    /**
+     * Subscribe with a caller-supplied emitter (the benchmarks use one that discards writes).
+     */
+    public SseEmitter subscribe(SubscriptionFilter filter, Long lastEventId, SseEmitter emitter) {
+        SseSubscriber subscriber;
+        publishLock.lock();
+        try {
+            List<SseEvent> missed = new ArrayList<>();
+            if (lastEventId != null) {
+                for (SseEvent event : replayLog.since(lastEventId, System.currentTimeMillis())) {
+                    if (filter.matches(event)) {
+                        missed.add(event);
+                    }
+                }
+            }
+            // Room for the whole backlog on top of the live buffer, so catching up never trips the overflow policy.
+            subscriber = new SseSubscriber(nextSubscriberId.incrementAndGet(), emitter, filter,
+                bufferSize + missed.size(), overflowPolicy, heartbeatMillis, index::remove, droppedEvents::increment);
+            for (SseEvent event : missed) {
+                subscriber.offer(event);
+            }
+            replayedEvents.increment(missed.size());
+            index.add(subscriber);
+        } finally {
+            publishLock.unlock();
+        }
+        subscriber.start();
+        return emitter;
+    }
+
+    /**
+     * @param type  event type, e.g. "user.created"
+     * @param email the user the event is about, or null
+     * @param data  the payload; a String is taken to be JSON already
+     */
+    public void publish(String type, String email, Object data) {
+        publishAll(type, List.of(data), d -> email);
+    }
+
+    /**
+     * Publish a batch of events of one type as a single dispatch: payloads are serialized up front
+     * and the publish lock is taken once for the whole batch.
+     */
+    public <T> void publishAll(String type, List<T> payloads, Function<T, String> emailOf) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        publishedEvents.increment(payloads.size());
+        List<String> jsons = new ArrayList<>(payloads.size());
+        List<String> emails = new ArrayList<>(payloads.size());
+        for (T payload : payloads) {
+            jsons.add(toJson(payload));
+            String email = emailOf.apply(payload);
+            emails.add(email != null ? email.trim().toLowerCase(Locale.ROOT) : null);
+        }
+        publishLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < jsons.size(); i++) {
+                SseEvent event = new SseEvent(nextEventId.incrementAndGet(), type, emails.get(i), jsons.get(i), now);
+                replayLog.append(event);
+                index.dispatch(event);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private String toJson(Object data) {
+        if (data instanceof String text) {
+            return text;
+        }
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize SSE payload", e);
+        }
+    }
+
+    public int getActiveConnections() {
+        return index.size();
+    }
+
+    private double maxLag() {
+        int max = 0;
+        for (SseSubscriber subscriber : index.all()) {
+            max = Math.max(max, subscriber.getLag());
+        }
+        return max;
+    }
+
+    private double totalLag() {
+        long total = 0;
+        for (SseSubscriber subscriber : index.all()) {
+            total += subscriber.getLag();
+        }
+        return total;
+    }
+}
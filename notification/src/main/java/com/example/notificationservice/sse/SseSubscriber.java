@@ -0,0 +1,134 @@
+package com.example.notificationservice.sse;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One connected SSE client: a bounded ring buffer of pending events drained by a dedicated
+ * virtual thread. Publishing only enqueues, so a slow client blocks nothing but its own writer.
+ * When the buffer is idle for the heartbeat interval the writer sends a comment frame, which
+ * keeps proxies from closing the connection and detects clients that went away.
+ */
+public class SseSubscriber {
+
+    private final long id;
+    private final SseEmitter emitter;
+    private final SubscriptionFilter filter;
+    private final ArrayBlockingQueue<SseEvent> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final long heartbeatMillis;
+    private final Consumer<SseSubscriber> onClose;
+    private final Runnable onDrop;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Thread writer;
+
+    public SseSubscriber(long id, SseEmitter emitter, SubscriptionFilter filter, int bufferSize,
+                         OverflowPolicy overflowPolicy, long heartbeatMillis,
+                         Consumer<SseSubscriber> onClose, Runnable onDrop) {
+        this.id = id;
+        this.emitter = emitter;
+        this.filter = filter;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.overflowPolicy = overflowPolicy;
+        this.heartbeatMillis = heartbeatMillis;
+        this.onClose = onClose;
+        this.onDrop = onDrop;
+        emitter.onCompletion(() -> close(false));
+        emitter.onTimeout(() -> close(false));
+        emitter.onError(e -> close(false));
+    }
+
+    public void start() {
+        writer = Thread.ofVirtual().name("sse-writer-" + id).start(this::drain);
+    }
+
+    /**
+     * Enqueue an event without blocking.
+     * @return false if the subscriber is closed or was disconnected by the overflow policy
+     */
+    public boolean offer(SseEvent event) {
+        if (closed.get()) {
+            return false;
+        }
+        if (buffer.offer(event)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+            onDrop.run();
+            close(true);
+            return false;
+        }
+        while (!buffer.offer(event)) {
+            if (buffer.poll() != null) {
+                onDrop.run();
+            }
+        }
+        return true;
+    }
+
+    private void drain() {
+        try {
+            while (!closed.get()) {
+                SseEvent event = buffer.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event().id(String.valueOf(event.id())).data(event.json(), MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // The client went away mid-write.
+        } finally {
+            close(true);
+        }
+    }
+
+    /**
+     * @param completeEmitter true when the close starts on our side and the response must be ended;
+     *                        false when the container already completed it
+     */
+    public void close(boolean completeEmitter) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        buffer.clear();
+        onClose.accept(this);
+        if (completeEmitter) {
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // Response already finished.
+            }
+        }
+        Thread current = writer;
+        if (current != null && current != Thread.currentThread()) {
+            current.interrupt();
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Events buffered but not yet written to this client.
+     */
+    public int getLag() {
+        return buffer.size();
+    }
+
+    public SubscriptionFilter getFilter() {
+        return filter;
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+}
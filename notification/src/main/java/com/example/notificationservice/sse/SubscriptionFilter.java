@@ -0,0 +1,86 @@
+package com.example.notificationservice.sse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * What a subscriber wants to receive: a set of event types (empty means all types) narrowed to
+ * either one user's email, one email domain, or nobody in particular (all users).
+ */
+public record SubscriptionFilter(Set<String> types, String email, String domain) {
+
+    static final String ANY = "*";
+
+    public static final SubscriptionFilter ALL = new SubscriptionFilter(Set.of(), null, null);
+
+    public SubscriptionFilter {
+        types = types == null ? Set.of() : Set.copyOf(types);
+        email = email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+        domain = domain == null || domain.isBlank() ? null : stripAt(domain.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public boolean matches(SseEvent event) {
+        if (!types.isEmpty() && !types.contains(event.type())) {
+            return false;
+        }
+        if (email != null) {
+            return email.equals(event.email());
+        }
+        if (domain != null) {
+            return domain.equals(domainOf(event.email()));
+        }
+        return true;
+    }
+
+    /**
+     * The subscription index buckets this filter belongs to; see {@link #keysFor(SseEvent)}.
+     */
+    List<String> indexKeys() {
+        String scope = email != null ? "email:" + email : domain != null ? "domain:" + domain : ANY;
+        if (types.isEmpty()) {
+            return List.of(key(ANY, scope));
+        }
+        List<String> keys = new ArrayList<>(types.size());
+        for (String type : types) {
+            keys.add(key(type, scope));
+        }
+        return keys;
+    }
+
+    /**
+     * Every bucket that can hold a subscriber interested in the event. A subscriber sits in
+     * exactly one of these per event, so the union needs no de-duplication.
+     */
+    static List<String> keysFor(SseEvent event) {
+        List<String> keys = new ArrayList<>(6);
+        String domain = domainOf(event.email());
+        for (String type : new String[] {event.type(), ANY}) {
+            keys.add(key(type, ANY));
+            if (event.email() != null) {
+                keys.add(key(type, "email:" + event.email()));
+            }
+            if (domain != null) {
+                keys.add(key(type, "domain:" + domain));
+            }
+        }
+        return keys;
+    }
+
+    static String domainOf(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        return at >= 0 ? email.substring(at + 1) : null;
+    }
+
+    private static String key(String type, String scope) {
+        return type + "|" + scope;
+    }
+
+    private static String stripAt(String domain) {
+        return domain.startsWith("@") ? domain.substring(1) : domain;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.notificationservice.sse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SubscriptionIndex: maps (event type, user scope) keys to the subscribers registered under them,
+ * so dispatching an event only visits the subscribers whose filter matches it.
+ */
+public class SubscriptionIndex {
+
+    private final Map<String, Set<SseSubscriber>> buckets = new ConcurrentHashMap<>();
+    private final Set<SseSubscriber> all = ConcurrentHashMap.newKeySet();
+
+    public void add(SseSubscriber subscriber) {
+        all.add(subscriber);
+        for (String key : subscriber.getFilter().indexKeys()) {
+            // Add inside compute, atomically with remove() dropping an emptied bucket: adding to the
+            // set returned by computeIfAbsent could land in a bucket that was just unmapped.
+            buckets.compute(key, (k, set) -> {
+                Set<SseSubscriber> bucket = set != null ? set : ConcurrentHashMap.<SseSubscriber>newKeySet();
+                bucket.add(subscriber);
+                return bucket;
+            });
+        }
+    }
+
+    public void remove(SseSubscriber subscriber) {
+        all.remove(subscriber);
+        for (String key : subscriber.getFilter().indexKeys()) {
+            buckets.computeIfPresent(key, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /**
+     * Offer the event to every matching subscriber.
+     * @return the number of subscribers it was offered to
+     */
+    public int dispatch(SseEvent event) {
+        int delivered = 0;
+        List<String> keys = SubscriptionFilter.keysFor(event);
+        for (String key : keys) {
+            Set<SseSubscriber> bucket = buckets.get(key);
+            if (bucket != null) {
+                for (SseSubscriber subscriber : bucket) {
+                    subscriber.offer(event);
+                    delivered++;
+                }
+            }
+        }
+        return delivered;
+    }
+
+    public Set<SseSubscriber> all() {
+        return all;
+    }
+
+    public int size() {
+        return all.size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.perf;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * ClosedLoad: closed-model HTTP load. A fixed number of clients each send a request, wait for the
+ * response and immediately send the next, so the request rate is whatever the server sustains.
+ * The achieved rate of the report is the throughput at that concurrency; latency is measured per
+ * request from send to response. Close it when done: that closes the client's connections.
+ */
+public class ClosedLoad implements AutoCloseable {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient client;
+
+    public ClosedLoad() {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    /**
+     * Run a warmup phase (not recorded) and then a measured phase with the same clients.
+     *
+     * @param clients  concurrent clients, one virtual thread each
+     * @param requests request number to request; numbers are unique across clients and phases
+     */
+    public LatencyReport run(String name, int clients, Duration warmup, Duration duration,
+                             LongFunction<HttpRequest> requests) throws InterruptedException {
+        AtomicLong sequence = new AtomicLong();
+        phase(null, clients, warmup, sequence, requests, new AtomicLong(), new AtomicLong());
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long started = System.nanoTime();
+        phase(histogram, clients, duration, sequence, requests, completed, errors);
+        long elapsed = System.nanoTime() - started;
+        return new LatencyReport(name, histogram, completed.get(), errors.get(), clients + " clients", elapsed);
+    }
+
+    private void phase(Histogram histogram, int clients, Duration duration, AtomicLong sequence,
+                       LongFunction<HttpRequest> requests, AtomicLong completed, AtomicLong errors) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            threads.add(Thread.ofVirtual().name("closed-load-" + c).start(() -> {
+                while (System.nanoTime() < end) {
+                    HttpRequest request = requests.apply(sequence.getAndIncrement());
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    if (histogram != null) {
+                        histogram.recordValue(Math.min(System.nanoTime() - start, HIGHEST_TRACKABLE_NANOS));
+                        completed.incrementAndGet();
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Close the client's connections.
+     */
+    @Override
+    public void close() {
+        client.close();
+    }
+}
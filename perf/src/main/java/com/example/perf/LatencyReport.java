@@ -0,0 +1,81 @@
+package com.example.perf;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * LatencyReport: the latency histogram of one {@link OpenLoad} run plus its request and error
+ * counts. Percentiles are reported in milliseconds.
+ */
+public class LatencyReport {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String name;
+    private final Histogram histogram;
+    private final long requests;
+    private final long errors;
+    private final String load;
+    private final long elapsedNanos;
+
+    /**
+     * @param load how the load was generated, for the summary, e.g. "200.0/s open" or "1000 clients"
+     */
+    public LatencyReport(String name, Histogram histogram, long requests, long errors, String load, long elapsedNanos) {
+        this.name = name;
+        this.histogram = histogram;
+        this.requests = requests;
+        this.errors = errors;
+        this.load = load;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    public double maxMillis() {
+        return histogram.getMaxValue() / NANOS_PER_MILLI;
+    }
+
+    public double achievedRate() {
+        return requests / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * One-line summary, e.g. "user.add: 6000 requests (0 errors), 200.0/s open, 199.8/s achieved,
+     * p50 1.21 ms, p99 8.40 ms, max 31.2 ms".
+     */
+    public String summary() {
+        return String.format("%s: %d requests (%d errors), %s, %.1f/s achieved, p50 %.2f ms, p99 %.2f ms, max %.1f ms",
+            name, requests, errors, load, achievedRate(), percentileMillis(50), percentileMillis(99), maxMillis());
+    }
+
+    /**
+     * Write the full percentile distribution as an .hgrm file (milliseconds), which HdrHistogram's
+     * plotter and most histogram tools read.
+     */
+    public void writeDistribution(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(name + ".hgrm")))) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.perf;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * OpenLoad: open-model HTTP load. Requests are started at a fixed arrival rate whether or not
+ * earlier ones have completed, the way independent users arrive, so a slow server builds a queue
+ * instead of slowing the load down. Latency is measured from the time a request was scheduled to
+ * start, not from when it was actually sent, so stalls of the generator or of the server show up
+ * in the histogram (no coordinated omission).
+ *
+ * A response with a status outside 200-299 counts as an error; its latency is still recorded.
+ *
+ * Use {@link ClosedLoad} instead to measure the throughput a fixed number of clients can get.
+ * Close it when done: that closes the client's connections.
+ */
+public class OpenLoad implements AutoCloseable {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ExecutorService executor;
+    private final HttpClient client;
+
+    public OpenLoad() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+    }
+
+    /**
+     * Run a warmup phase (not recorded) and then a measured phase at the same rate.
+     *
+     * @param name            report name, also the key prefix in the baseline file
+     * @param ratePerSecond   request arrival rate
+     * @param requests        request number to request; numbering continues from warmup into the measured phase
+     */
+    public LatencyReport run(String name, double ratePerSecond, Duration warmup, Duration duration,
+                             LongFunction<HttpRequest> requests) throws InterruptedException {
+        long next = phase(null, ratePerSecond, warmup, 0, requests, new AtomicLong());
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        AtomicLong errors = new AtomicLong();
+        long started = System.nanoTime();
+        long sent = phase(histogram, ratePerSecond, duration, next, requests, errors) - next;
+        long elapsed = System.nanoTime() - started;
+        return new LatencyReport(name, histogram, sent, errors.get(), String.format("%.1f/s open", ratePerSecond), elapsed);
+    }
+
+    /**
+     * Issue requests for one phase and wait for all of them to complete (or time out).
+     * @return the next request number
+     */
+    private long phase(Histogram histogram, double ratePerSecond, Duration duration, long first,
+                       LongFunction<HttpRequest> requests, AtomicLong errors) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long count = (long) (duration.toNanos() / intervalNanos);
+        AtomicLong outstanding = new AtomicLong(count);
+        Object done = new Object();
+        long start = System.nanoTime();
+        for (long i = 0; i < count; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            HttpRequest request = requests.apply(first + i);
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                if (histogram != null) {
+                    histogram.recordValue(Math.min(System.nanoTime() - intended, HIGHEST_TRACKABLE_NANOS));
+                    if (failure != null || response.statusCode() / 100 != 2) {
+                        errors.incrementAndGet();
+                    }
+                }
+                if (outstanding.decrementAndGet() == 0) {
+                    synchronized (done) {
+                        done.notifyAll();
+                    }
+                }
+            });
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        synchronized (done) {
+            while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+                done.wait(100);
+            }
+        }
+        if (histogram != null) {
+            // Requests still outstanding at the deadline are errors.
+            errors.addAndGet(outstanding.get());
+        }
+        return first + count;
+    }
+
+    /**
+     * Close the client's connections and stop its executor. Requests still outstanding after a
+     * phase's deadline were counted as errors and are aborted.
+     */
+    @Override
+    public void close() {
+        client.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.perf;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * PerfBaseline: compares latency reports against a stored baseline and fails on regressions.
+ *
+ * The baseline is a properties file with, per report, the p50 and p99 in milliseconds:
+ * <pre>
+ * user.add.p50.ms=2.5
+ * user.add.p99.ms=20
+ * </pre>
+ * A report regresses when a percentile exceeds its baseline by more than the tolerance
+ * (system property perf.tolerance, default 0.5 = 50%; latencies of short runs on shared machines
+ * are noisy) or when it had any errors. A report without a baseline entry fails as well: an empty
+ * baseline would otherwise let every run pass unchecked.
+ *
+ * With -Dperf.record-baseline=true the reports are written to the baseline file instead of being
+ * checked, which is how the baseline is created and how it is updated after an intended change.
+ * A run with errors is not recorded, since its latencies are not those of a working service.
+ * Recording keeps the comment lines at the top of the file and writes the entries sorted by key.
+ */
+public class PerfBaseline {
+
+    private final Path file;
+    private final double tolerance;
+    private final boolean record;
+
+    public PerfBaseline(Path file) {
+        this.file = file;
+        this.tolerance = Double.parseDouble(System.getProperty("perf.tolerance", "0.5"));
+        this.record = Boolean.getBoolean("perf.record-baseline");
+    }
+
+    /**
+     * Print the reports, write their distributions to dir, and record or check them.
+     * @throws AssertionError listing every regression
+     */
+    public void verify(List<LatencyReport> reports, Path dir) throws IOException {
+        for (LatencyReport report : reports) {
+            System.out.println("[perf] " + report.summary());
+            report.writeDistribution(dir);
+        }
+        if (record) {
+            List<String> failed = new ArrayList<>();
+            for (LatencyReport report : reports) {
+                if (report.getErrors() > 0) {
+                    failed.add(report.getName() + ": " + report.getErrors() + " of " + report.getRequests() + " requests failed");
+                }
+            }
+            if (!failed.isEmpty()) {
+                throw new AssertionError("Not recording a baseline from a run with errors into " + file + ":\n  "
+                    + String.join("\n  ", failed));
+            }
+            record(reports);
+            return;
+        }
+        Properties baseline = new Properties();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                baseline.load(reader);
+            }
+        }
+        List<String> regressions = new ArrayList<>();
+        for (LatencyReport report : reports) {
+            if (report.getErrors() > 0) {
+                regressions.add(report.getName() + ": " + report.getErrors() + " of " + report.getRequests() + " requests failed");
+            }
+            if (baseline.getProperty(key(report, "p50")) == null || baseline.getProperty(key(report, "p99")) == null) {
+                regressions.add(report.getName() + ": no baseline entry; record one with -Dperf.record-baseline=true");
+                continue;
+            }
+            check(baseline, report, 50, "p50", regressions);
+            check(baseline, report, 99, "p99", regressions);
+        }
+        if (!regressions.isEmpty()) {
+            throw new AssertionError("Latency regressions against " + file + " (tolerance "
+                + Math.round(tolerance * 100) + "%):\n  " + String.join("\n  ", regressions));
+        }
+    }
+
+    private void check(Properties baseline, LatencyReport report, double percentile, String label, List<String> regressions) {
+        String value = baseline.getProperty(key(report, label));
+        double limit = Double.parseDouble(value) * (1 + tolerance);
+        double actual = report.percentileMillis(percentile);
+        if (actual > limit) {
+            regressions.add(String.format(Locale.ROOT, "%s %s %.2f ms > %.2f ms (baseline %s ms)",
+                report.getName(), label, actual, limit, value));
+        }
+    }
+
+    private void record(List<LatencyReport> reports) throws IOException {
+        Properties baseline = new Properties();
+        List<String> header = new ArrayList<>();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                baseline.load(reader);
+            }
+            for (String line : Files.readAllLines(file)) {
+                if (!line.startsWith("#")) {
+                    break;
+                }
+                header.add(line);
+            }
+        }
+        for (LatencyReport report : reports) {
+            baseline.setProperty(key(report, "p50"), format(report.percentileMillis(50)));
+            baseline.setProperty(key(report, "p99"), format(report.percentileMillis(99)));
+        }
+        List<String> lines = new ArrayList<>(header);
+        new TreeSet<>(baseline.stringPropertyNames()).forEach(key -> lines.add(key + "=" + baseline.getProperty(key)));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, lines);
+        System.out.println("[perf] Recorded baseline " + file);
+    }
+
+    private static String key(LatencyReport report, String label) {
+        return report.getName() + "." + label + ".ms";
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+}
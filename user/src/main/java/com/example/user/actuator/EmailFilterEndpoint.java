@@ -0,0 +1,51 @@
+package com.example.user.actuator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.example.user.cache.BloomFilter;
+import com.example.user.service.RegisteredEmailFilter;
+
+/**
+ * Actuator endpoint for the registered-email Bloom filter.
+ * GET /actuator/emailfilter reports size and false-positive rate; POST triggers a background rebuild.
+ */
+@Component
+@Endpoint(id = "emailfilter")
+public class EmailFilterEndpoint {
+
+    private final RegisteredEmailFilter emailFilter;
+
+    public EmailFilterEndpoint(RegisteredEmailFilter emailFilter) {
+        this.emailFilter = emailFilter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> filter() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("ready", emailFilter.isReady());
+        details.put("rebuilding", emailFilter.isRebuilding());
+        details.put("lastRebuildMillis", emailFilter.getLastRebuildMillis());
+        details.put("definiteMisses", emailFilter.getDefiniteMisses());
+        details.put("maybeHits", emailFilter.getMaybeHits());
+        BloomFilter filter = emailFilter.getActiveFilter();
+        if (filter != null) {
+            details.put("insertions", filter.getInsertions());
+            details.put("bits", filter.getBitCount());
+            details.put("hashFunctions", filter.getHashCount());
+            details.put("memoryBytes", filter.getMemoryBytes());
+            details.put("expectedFalsePositiveRate", filter.getExpectedFalsePositiveRate());
+        }
+        return details;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of("started", emailFilter.rebuildAsync());
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.user.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * TwoLevelCache: a bounded in-process Caffeine cache (L1) in front of a shared Redis cache (L2).
+ * Reads are served from L1 when possible and fall back to L2, populating L1 on the way back.
+ * Writes and evictions go to both tiers and are announced to the other instances so they can
+ * drop their L1 copy.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> l1;
+    private final Cache l2;
+    private final BiConsumer<String, Object> invalidationPublisher;
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param invalidationPublisher called with (cacheName, key) after a local put or evict;
+     *                              a null key means the whole cache was cleared
+     */
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> l1,
+                         Cache l2,
+                         BiConsumer<String, Object> invalidationPublisher) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper local = l1.getIfPresent(key);
+        if (local != null) {
+            l1Hits.increment();
+            return local;
+        }
+        ValueWrapper remote = l2.get(key);
+        if (remote != null) {
+            l2Hits.increment();
+            l1.put(key, new SimpleValueWrapper(remote.get()));
+        } else {
+            misses.increment();
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper local = l1.getIfPresent(key);
+        if (local != null) {
+            l1Hits.increment();
+            return (T) local.get();
+        }
+        T value = l2.get(key, valueLoader);
+        l1.put(key, new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        l1.put(key, new SimpleValueWrapper(value));
+        invalidationPublisher.accept(name, key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        l1.invalidate(key);
+        invalidationPublisher.accept(name, key);
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Drop an L1 entry because another instance changed it. L2 is already up to date.
+     */
+    public void invalidateLocal(Object key) {
+        if (key == null) {
+            l1.invalidateAll();
+        } else {
+            l1.invalidate(key);
+        }
+    }
+
+    public long getL1Hits() {
+        return l1Hits.sum();
+    }
+
+    public long getL2Hits() {
+        return l2Hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getL1Size() {
+        return l1.estimatedSize();
+    }
+
+    public double getL1HitRatio() {
+        long total = getL1Hits() + getL2Hits() + getMisses();
+        return total == 0 ? 0.0 : (double) getL1Hits() / total;
+    }
+
+    public double getL2HitRatio() {
+        long l2Requests = getL2Hits() + getMisses();
+        return l2Requests == 0 ? 0.0 : (double) getL2Hits() / l2Requests;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.user.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * TwoLevelCacheManager: wraps every cache of the Redis CacheManager in a {@link TwoLevelCache}.
+ * Local changes are broadcast on a Redis pub/sub channel as "instanceId|cacheName|key"
+ * (an empty key means clear); this manager also listens on that channel and drops the matching
+ * L1 entries that other instances changed.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String channel;
+    private final long maximumSize;
+    private final Duration ttl;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager redisCacheManager,
+                                StringRedisTemplate redisTemplate,
+                                MeterRegistry meterRegistry,
+                                String channel,
+                                long maximumSize,
+                                Duration ttl) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.channel = channel;
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache l2 = redisCacheManager.getCache(name);
+        if (l2 == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> createCache(n, l2));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    private TwoLevelCache createCache(String name, Cache l2) {
+        // Caffeine's Window TinyLFU eviction keeps hot emails resident under a bounded size;
+        // the TTL caps how long an entry can stay stale if an invalidation message is lost.
+        com.github.benmanes.caffeine.cache.Cache<Object, Cache.ValueWrapper> l1 = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .build();
+        TwoLevelCache cache = new TwoLevelCache(name, l1, l2, this::publishInvalidation);
+        registerMetrics(cache);
+        return cache;
+    }
+
+    private void registerMetrics(TwoLevelCache cache) {
+        String name = cache.getName();
+        FunctionCounter.builder("user.cache.requests", cache, TwoLevelCache::getL1Hits)
+            .tag("cache", name).tag("result", "l1_hit")
+            .description("Lookups answered by the in-process L1 cache")
+            .register(meterRegistry);
+        FunctionCounter.builder("user.cache.requests", cache, TwoLevelCache::getL2Hits)
+            .tag("cache", name).tag("result", "l2_hit")
+            .description("Lookups that missed L1 and were answered by Redis")
+            .register(meterRegistry);
+        FunctionCounter.builder("user.cache.requests", cache, TwoLevelCache::getMisses)
+            .tag("cache", name).tag("result", "miss")
+            .description("Lookups that missed both tiers")
+            .register(meterRegistry);
+        Gauge.builder("user.cache.hit.ratio", cache, TwoLevelCache::getL1HitRatio)
+            .tag("cache", name).tag("tier", "l1")
+            .register(meterRegistry);
+        Gauge.builder("user.cache.hit.ratio", cache, TwoLevelCache::getL2HitRatio)
+            .tag("cache", name).tag("tier", "l2")
+            .register(meterRegistry);
+        Gauge.builder("user.cache.l1.size", cache, TwoLevelCache::getL1Size)
+            .tag("cache", name)
+            .register(meterRegistry);
+    }
+
+    private void publishInvalidation(String cacheName, Object key) {
+        String message = instanceId + SEPARATOR + cacheName + SEPARATOR + (key == null ? "" : key.toString());
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), java.nio.charset.StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(instanceId)) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.user.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.example.codec.BinaryCodec;
+import com.example.codec.BinaryRedisSerializer;
+import com.example.user.cache.TwoLevelCacheManager;
+import com.example.user.service.UserLookupService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * CacheConfig: two-tier caching for the user service.
+ * Redis stays the shared L2; each instance keeps a bounded Caffeine L1 in front of it,
+ * kept coherent through Redis pub/sub invalidation messages.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * userByEmail values use the binary codec: always readable, written once user.cache.codec=binary.
+     * Entries in JDK serialization (the default format, and what older instances write) stay readable.
+     */
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                               @Value("${user.cache.user-by-email.redis-ttl:1h}") Duration userByEmailTtl,
+                                               @Value("${user.cache.codec:jdk}") String codec,
+                                               @Value("${user.codec.compression-threshold:512}") int compressionThreshold) {
+        ClassLoader classLoader = getClass().getClassLoader();
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig(classLoader);
+        BinaryRedisSerializer userByEmailSerializer = new BinaryRedisSerializer(
+            new BinaryCodec(compressionThreshold), UserLookupService.CachedLookup.class, "binary".equalsIgnoreCase(codec), classLoader);
+        // userByEmail entries carry their own logical expiry; the Redis TTL only garbage-collects
+        // negative entries for emails that are never looked up again.
+        return RedisCacheManager.builder(connectionFactory)
+            .cacheDefaults(defaults)
+            .withCacheConfiguration(UserLookupService.CACHE_NAME, defaults
+                .entryTtl(userByEmailTtl)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(userByEmailSerializer)))
+            .build();
+    }
+
+    @Bean
+    @Primary
+    public TwoLevelCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                             StringRedisTemplate redisTemplate,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${user.cache.invalidation-channel:user.cache.invalidation}") String channel,
+                                             @Value("${user.cache.l1.maximum-size:10000}") long maximumSize,
+                                             @Value("${user.cache.l1.ttl:60s}") Duration ttl) {
+        return new TwoLevelCacheManager(redisCacheManager, redisTemplate, meterRegistry, channel, maximumSize, ttl);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TwoLevelCacheManager cacheManager,
+            @Value("${user.cache.invalidation-channel:user.cache.invalidation}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(channel));
+        return container;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.user.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.example.user.datasource.ReadYourWritesFilter;
+import com.example.user.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read-replica routing, active when user.datasource.replica-urls lists one or more JDBC URLs.
+ * Without it Spring Boot's single DataSource is used unchanged.
+ *
+ * The primary pool is configured from spring.datasource.* as before. Each replica pool copies the
+ * primary's Hikari settings and credentials with its own URL and read-only connections. JPA uses a
+ * LazyConnectionDataSourceProxy: it fetches the physical connection only at the first statement,
+ * when the transaction's read-only flag is known, and takes read-only connections from the
+ * {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty("user.datasource.replica-urls")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             @Value("${user.datasource.replica-urls}") String replicaUrls,
+                                                             @Value("${user.datasource.replica-health-interval:2s}") Duration healthInterval,
+                                                             @Value("${user.datasource.replica-max-lag:1s}") Duration maxLag,
+                                                             @Value("${user.datasource.read-your-writes-window:5s}") Duration window,
+                                                             MeterRegistry meterRegistry) {
+        checkMaxLag(maxLag, healthInterval, window);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls.split(",")) {
+            if (url.isBlank()) continue;
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(url.trim());
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setReadOnly(true);
+            // Start without connecting, so a replica that is down at startup is just marked down.
+            config.setInitializationFailTimeout(-1);
+            if (config.getMetricRegistry() == null) {
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            }
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, healthInterval, maxLag, meterRegistry);
+    }
+
+    /**
+     * List reads go back to replicas once read-your-writes-window has passed since the last change,
+     * and their ETag is already the new one. A replica must have caught up by then or be marked
+     * down: its lag can reach max-lag plus one second (Seconds_Behind_Source is whole seconds)
+     * before a check, and a check comes every health-interval.
+     */
+    static void checkMaxLag(Duration maxLag, Duration healthInterval, Duration window) {
+        if (maxLag.isZero() || maxLag.isNegative()) {
+            throw new IllegalStateException("user.datasource.replica-max-lag must be set when replicas are configured, "
+                + "otherwise a lagging replica serves rows older than the ETag it is sent with");
+        }
+        Duration worstCase = maxLag.plusSeconds(1).plus(healthInterval);
+        if (worstCase.compareTo(window) >= 0) {
+            throw new IllegalStateException("user.datasource.replica-max-lag (" + maxLag + ") plus one second plus "
+                + "replica-health-interval (" + healthInterval + ") must be below read-your-writes-window (" + window + ")");
+        }
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${user.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+}
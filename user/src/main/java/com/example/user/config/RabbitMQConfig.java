@@ -1,19 +1,27 @@
 package com.example.user.config;
 
-import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.example.codec.BinaryCodec;
+import com.example.codec.BinaryMessageConverter;
+import com.example.user.event.UserCreatedEvent;
+import com.example.user.event.UserCreationFailedEvent;
+
 @Configuration
 public class RabbitMQConfig {
 
     public static final String EXCHANGE_NAME = "user.exchange";
     public static final String ROUTING_KEY = "user.created";
     public static final String ROUTING_KEY_FAILURE = "user.created.failed";
+    // log-service ingestion channel; the queue itself is declared by log-service
+    public static final String LOG_EXCHANGE_NAME = "log.exchange";
+    public static final String LOG_ROUTING_KEY = "log.ingest";
 
     @Bean
     public DirectExchange userExchange() {
@@ -21,9 +29,23 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public DirectExchange logExchange() {
+        return new DirectExchange(LOG_EXCHANGE_NAME);
+    }
+
+    /**
+     * User events are sent in the binary codec when user.events.codec=binary, which the notification
+     * service must already be able to read; everything else (log records for log-service) stays JSON.
+     */
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
+                                         @Value("${user.events.codec:json}") String codec,
+                                         @Value("${user.codec.compression-threshold:512}") int compressionThreshold) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(new Jackson2JsonMessageConverter());
+        boolean binary = "binary".equalsIgnoreCase(codec);
+        template.setMessageConverter(new BinaryMessageConverter(new BinaryCodec(compressionThreshold),
+            new Jackson2JsonMessageConverter(),
+            payload -> binary && (payload instanceof UserCreatedEvent || payload instanceof UserCreationFailedEvent)));
         return template;
     }
 }
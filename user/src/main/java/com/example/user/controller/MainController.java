@@ -1,18 +1,35 @@
 package com.example.user.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.user.datasource.ReadRouting;
 import com.example.user.entity.User;
 import com.example.user.event.UserEventPublisher;
-import com.example.user.event.UserCreatedEvent;
 import com.example.user.event.UserCreationFailedEvent;
+import com.example.user.logging.LogShipper;
 import com.example.user.repository.UserRepository;
+import com.example.user.service.RegisteredEmailFilter;
+import com.example.user.service.SignupCoalescer;
+import com.example.user.service.UserImportService;
+import com.example.user.service.UserLookupService;
+import com.example.user.service.UserRegistrationService;
+import com.example.user.service.UserTableVersion;
 
 /**
  * @Controller: Marks this class as a Spring MVC Controller, allowing it to handle web requests.
@@ -25,7 +42,7 @@ import com.example.user.repository.UserRepository;
 public class MainController {
 
   /**
-   * @Autowired: Injects the UserEventPublisher bean for publishing user-related events.
+   * @Autowired: Injects the UserEventPublisher bean for recording user-related events in the outbox.
    */
   @Autowired
   private UserEventPublisher eventPublisher;
@@ -43,6 +60,69 @@ public class MainController {
   @Autowired
   private org.springframework.cache.CacheManager cacheManager;
 
+  /**
+   * @Autowired: Injects the UserImportService bean used by the bulk /import endpoint.
+   */
+  @Autowired
+  private UserImportService userImportService;
+
+  /**
+   * @Autowired: Injects the UserRegistrationService bean that creates users together with their outbox event.
+   */
+  @Autowired
+  private UserRegistrationService userRegistrationService;
+
+  /**
+   * @Autowired: Injects the SignupCoalescer bean that group-commits concurrent signups when enabled.
+   */
+  @Autowired
+  private SignupCoalescer signupCoalescer;
+
+  /**
+   * @Autowired: Injects the UserLookupService bean backing the cached /userByEmail lookup.
+   */
+  @Autowired
+  private UserLookupService userLookupService;
+
+  /**
+   * @Autowired: Injects the UserTableVersion bean whose watermark backs ETag / Last-Modified on the read endpoints.
+   */
+  @Autowired
+  private UserTableVersion userTableVersion;
+
+  /**
+   * @Autowired: Injects the Bloom filter of registered emails used to skip duplicate checks on signup.
+   */
+  @Autowired
+  private RegisteredEmailFilter registeredEmailFilter;
+
+  /**
+   * @Autowired: Injects the shared Jackson ObjectMapper, used to write NDJSON exports line by line.
+   */
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  /**
+   * @Autowired: Injects the LogShipper bean, which ships request logs to log-service asynchronously.
+   */
+  @Autowired
+  private LogShipper logShipper;
+
+  private static final String NDJSON = "application/x-ndjson";
+  private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  @Value("${user.page.default-size:100}")
+  private int defaultPageSize;
+
+  @Value("${user.page.max-size:1000}")
+  private int maxPageSize;
+
+  @Value("${user.page.export-chunk-size:500}")
+  private int exportChunkSize;
+
+  @Value("${user.datasource.read-your-writes-window:5s}")
+  private java.time.Duration readYourWritesWindow;
+
   /**
    * Fetch all soft deleted users.
    * @return Iterable<User> - list of soft deleted users
@@ -55,9 +135,26 @@ public class MainController {
    * @ResponseBody: Indicates the return value should be written directly to the HTTP response body.
    */
   @ResponseBody
-  public Iterable<User> getDeletedUsers() {
-  System.out.println("[LOG] @GetMapping ---------------------------/deleted-users called");
-    return userRepository.findAllByDeletedTrue();
+  public ResponseEntity<Iterable<User>> getDeletedUsers(@RequestParam(required = false) Integer afterId,
+                                                        @RequestParam(required = false) Integer size,
+                                                        ServletWebRequest request) {
+  logShipper.log("@GetMapping ---------------------------/deleted-users called");
+    UserTableVersion.Watermark watermark = userTableVersion.current();
+    if (notModified(request, watermark)) {
+      return null;
+    }
+    return readAfter(watermark, () -> afterId == null && size == null
+        ? ResponseEntity.ok(userRepository.findAllByDeletedTrue())
+        : pageResponse(fetchPage(true, afterId, size), size));
+  }
+
+  /**
+   * Stream all soft deleted users as NDJSON, one user per line.
+   */
+  @GetMapping(path="/deleted-users/export", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> exportDeletedUsers() {
+  logShipper.log("@GetMapping /deleted-users/export called");
+    return ndjsonResponse(true);
   }
 
   /**
@@ -78,9 +175,10 @@ public class MainController {
    */
   @ResponseBody
   /**
-   * @CachePut: Updates the cache with the new user under the key 'userByEmail' using the email as the key.
+   * @CacheEvict: Drops the 'userByEmail' entry for this email, including a cached "not found" answer,
+   * so the next lookup reads the new user.
    */
-  @org.springframework.cache.annotation.CachePut(value = "userByEmail", key = "#email")
+  @org.springframework.cache.annotation.CacheEvict(value = "userByEmail", key = "#email")
   /**
    * @RequestParam: Binds the HTTP request parameters 'name' and 'email' to method arguments.
    */
@@ -88,25 +186,78 @@ public class MainController {
     // @ResponseBody means the returned String is the response, not a view name
     // @RequestParam means it is a parameter from the GET or POST request
 
-  System.out.println("[LOG] @PostMapping /add called");
-    UserCreatedEvent event = new UserCreatedEvent(name, email);
-    if (userRepository.findByEmail(email).isPresent()) {
-      System.out.println("Email already registered: " + email);
-      eventPublisher.publishUserCreationFailedEvent(
-          new UserCreationFailedEvent(email, "Email already registered")
-      );
-      // publish failure event
-      return "Error: Email already registered.";
-    }
-    User n = new User();
-    n.setName(name);
-    n.setEmail(email);
-    userRepository.save(n);
-    eventPublisher.publishUserCreatedEvent(event); // publish success event
+  logShipper.log("@PostMapping /add called");
+    if (signupCoalescer.isEnabled()) {
+      return addCoalesced(name, email);
+    }
+    // The Bloom filter answers "definitely new" for most signups, skipping the SELECT.
+    if (registeredEmailFilter.mightContain(email) && userRepository.findByEmail(email).isPresent()) {
+      return rejectDuplicate(email);
+    }
+    try {
+      // Saves the user and its UserCreatedEvent outbox row in one transaction; OutboxRelay publishes it.
+      userRegistrationService.register(name, email);
+    } catch (org.springframework.dao.DataIntegrityViolationException e) {
+      // The unique constraint on email is the final authority (concurrent signup or filter miss).
+      return rejectDuplicate(email);
+    }
+    registeredEmailFilter.add(email);
     // Evicts the cached user list so next /users call gets fresh data
     return "Saved";
   }
 
+  /**
+   * Group-commit path: the signup is written together with other concurrent signups and this
+   * request waits for its own outcome. The batch does its own set-based duplicate check.
+   */
+  private String addCoalesced(String name, String email) {
+    java.util.concurrent.CompletableFuture<SignupCoalescer.Outcome> result = signupCoalescer.submit(name, email);
+    if (result == null) {
+      throw new org.springframework.web.server.ResponseStatusException(
+          org.springframework.http.HttpStatus.TOO_MANY_REQUESTS, "Too many signups in progress");
+    }
+    SignupCoalescer.Outcome outcome;
+    try {
+      outcome = result.join();
+    } catch (java.util.concurrent.CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+    if (outcome == SignupCoalescer.Outcome.DUPLICATE) {
+      return rejectDuplicate(email);
+    }
+    registeredEmailFilter.add(email);
+    return "Saved";
+  }
+
+  private String rejectDuplicate(String email) {
+    logShipper.log("Email already registered: " + email);
+    eventPublisher.publishUserCreationFailedEvent(
+        new UserCreationFailedEvent(email, "Email already registered")
+    );
+    // publish failure event
+    return "Error: Email already registered.";
+  }
+
+  /**
+   * Bulk import users from a CSV ("name,email" per line), JSON array or NDJSON request body.
+   * Duplicate emails are detected with one set-based query per chunk and new rows are inserted
+   * with JDBC batching. Returns a per-row report; duplicates do not abort the import.
+   *
+   * @param contentType text/csv, application/json or application/x-ndjson
+   * @param body        the raw request stream
+   * @return ImportReport - counts plus one result per input row
+   */
+  @PostMapping(path="/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE, NDJSON})
+  @ResponseBody
+  public UserImportService.ImportReport importUsers(@RequestHeader("Content-Type") String contentType,
+                                                    java.io.InputStream body) throws java.io.IOException {
+  logShipper.log("@PostMapping /import called");
+    if (MediaType.parseMediaType(contentType).getSubtype().equalsIgnoreCase("csv")) {
+      return userImportService.importCsv(body);
+    }
+    return userImportService.importJson(body);
+  }
+
   /**
    * Get all users in the system.
    * Uses Redis caching to store and retrieve the user list for faster response.
@@ -118,32 +269,127 @@ public class MainController {
   /**
    * Get all users in the system.
    * This endpoint is no longer cached as a list. Use /userByEmail for per-user caching.
+   *
+   * Passing afterId and/or size switches to keyset pagination: the page holds users with
+   * id greater than afterId, ordered by id, and the X-Next-Cursor header carries the id to
+   * pass as afterId for the next page (absent on the last page).
+   *
+   * Responses carry an ETag and Last-Modified from the User table version; a request whose
+   * If-None-Match (or If-Modified-Since) is still current gets 304 without a database query.
    */
   @GetMapping(path="/users")
   @ResponseBody
-  public Iterable<User> getAllUsers() {
-    java.util.List<User> users = new java.util.ArrayList<>();
-  System.out.println("[LOG] @GetMapping /users called");
-    for (User user : userRepository.findAll()) {
-      if (!user.isDeleted()) {
-        users.add(user);
-      }
+  public ResponseEntity<Iterable<User>> getAllUsers(@RequestParam(required = false) Integer afterId,
+                                                    @RequestParam(required = false) Integer size,
+                                                    ServletWebRequest request) {
+  logShipper.log("@GetMapping /users called");
+    UserTableVersion.Watermark watermark = userTableVersion.current();
+    if (notModified(request, watermark)) {
+      return null;
+    }
+    return readAfter(watermark, () -> afterId == null && size == null
+        ? ResponseEntity.ok(userRepository.findAllByDeletedFalse())
+        : pageResponse(fetchPage(false, afterId, size), size));
+  }
+
+  /**
+   * Stream all active users as NDJSON, one user per line.
+   * The table is walked in keyset chunks of user.page.export-chunk-size rows, so memory use
+   * stays bounded by the chunk size rather than the table size.
+   */
+  @GetMapping(path="/users/export", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> exportUsers() {
+  logShipper.log("@GetMapping /users/export called");
+    return ndjsonResponse(false);
+  }
+
+  /**
+   * Conditional GET: sets ETag and Last-Modified from the User table version and returns true when
+   * the client's copy is still current, in which case the handler returns null and Spring sends 304.
+   * The watermark is read before the handler queries, so a change committed in between can only
+   * make the next request look modified, never hide a change.
+   */
+  private boolean notModified(ServletWebRequest request, UserTableVersion.Watermark watermark) {
+    if (watermark == null) {
+      return false;
     }
-    return users;
+    // no-cache: browsers may keep the body, but must revalidate it before every use.
+    request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    boolean notModified = request.checkNotModified(watermark.etag(), watermark.modified());
+    userTableVersion.recordRead(notModified);
+    return notModified;
+  }
+
+  /**
+   * Runs the query on the primary when the User table changed within the read-your-writes window.
+   * The response carries the new ETag, and a body read from a replica that has not caught up would
+   * be revalidated as current (304) until the next change.
+   */
+  private <T> T readAfter(UserTableVersion.Watermark watermark, java.util.function.Supplier<T> query) {
+    if (watermark != null && System.currentTimeMillis() - watermark.modified() < readYourWritesWindow.toMillis()) {
+      return ReadRouting.onPrimary(query);
+    }
+    return query.get();
+  }
+
+  private java.util.List<User> fetchPage(boolean deleted, Integer afterId, Integer size) {
+    int cursor = afterId != null ? afterId : 0;
+    PageRequest page = PageRequest.ofSize(resolvePageSize(size));
+    return deleted
+        ? userRepository.findByDeletedTrueAndIdGreaterThanOrderByIdAsc(cursor, page)
+        : userRepository.findByDeletedFalseAndIdGreaterThanOrderByIdAsc(cursor, page);
+  }
+
+  private int resolvePageSize(Integer size) {
+    return size != null ? Math.max(1, Math.min(size, maxPageSize)) : defaultPageSize;
+  }
+
+  private ResponseEntity<Iterable<User>> pageResponse(java.util.List<User> users, Integer size) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (users.size() == resolvePageSize(size)) {
+      response.header(NEXT_CURSOR_HEADER, String.valueOf(users.get(users.size() - 1).getId()));
+    }
+    return response.body(users);
+  }
+
+  private ResponseEntity<StreamingResponseBody> ndjsonResponse(boolean deleted) {
+    StreamingResponseBody body = out -> {
+      int cursor = 0;
+      while (true) {
+        java.util.List<User> chunk = deleted
+            ? userRepository.findByDeletedTrueAndIdGreaterThanOrderByIdAsc(cursor, PageRequest.ofSize(exportChunkSize))
+            : userRepository.findByDeletedFalseAndIdGreaterThanOrderByIdAsc(cursor, PageRequest.ofSize(exportChunkSize));
+        for (User user : chunk) {
+          out.write(objectMapper.writeValueAsBytes(user));
+          out.write('\n');
+        }
+        out.flush();
+        if (chunk.size() < exportChunkSize) {
+          break;
+        }
+        cursor = chunk.get(chunk.size() - 1).getId();
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
   }
 
   /**
    * Get a user by email, cached in Redis with email as the cache key.
+   * Lookups go through UserLookupService, which coalesces concurrent misses, caches unknown
+   * emails briefly and refreshes hot entries early. Conditional requests are answered from the
+   * User table version, like /users, before the cache is consulted.
    * @param email User's email
    * @return User or error message
    */
   @GetMapping(path="/userByEmail")
   @ResponseBody
-  @org.springframework.cache.annotation.Cacheable(value = "userByEmail", key = "#email")
-  public Object getUserByEmail(@RequestParam String email) {
-  System.out.println("[LOG] @GetMapping /userByEmail called");
-    java.util.Optional<User> userOpt = userRepository.findByEmail(email);
-    if (userOpt.isPresent() && !userOpt.get().isDeleted()) {
+  public Object getUserByEmail(@RequestParam String email, ServletWebRequest request) {
+  logShipper.log("@GetMapping /userByEmail called");
+    if (notModified(request, userTableVersion.current())) {
+      return null;
+    }
+    java.util.Optional<User> userOpt = userLookupService.findActiveByEmail(email);
+    if (userOpt.isPresent()) {
       return userOpt.get();
     } else {
       return "Error: User not found.";
@@ -160,19 +406,24 @@ public class MainController {
    */
   @PostMapping(path="/update")
   @ResponseBody
-  @org.springframework.cache.annotation.CacheEvict(value = "userByEmail", key = "#email")
+  @org.springframework.cache.annotation.CacheEvict(value = "userByEmail", key = "#email", condition = "#email != null")
   public String updateUser(@RequestParam Integer id,
                            @RequestParam(required = false) String name,
                            @RequestParam(required = false) String email) {
-  System.out.println("[LOG] @PostMapping /update called");
+  logShipper.log("@PostMapping /update called");
     java.util.Optional<User> userOpt = userRepository.findById(id);
     if (!userOpt.isPresent()) {
       return "Error: User not found.";
     }
     User user = userOpt.get();
+    // The entry cached under the current email is stale after any change, not just the new email's.
+    org.springframework.cache.Cache cache = cacheManager.getCache("userByEmail");
+    if (cache != null) cache.evict(user.getEmail());
     if (name != null && !name.isEmpty()) user.setName(name);
     if (email != null && !email.isEmpty()) user.setEmail(email);
     userRepository.save(user);
+    userTableVersion.changed();
+    registeredEmailFilter.add(user.getEmail());
     return "Updated";
   }
 
@@ -186,7 +437,7 @@ public class MainController {
   @PostMapping(path="/delete")
   @ResponseBody
   public String deleteUser(@RequestParam Integer id) {
-  System.out.println("[LOG] @PostMapping /delete called");
+  logShipper.log("@PostMapping /delete called");
     java.util.Optional<User> userOpt = userRepository.findById(id);
     if (!userOpt.isPresent()) {
       return "Error: User not found.";
@@ -197,6 +448,7 @@ public class MainController {
   User user = userOpt.get();
   user.setDeleted(true);
   userRepository.save(user);
+  userTableVersion.changed();
   return "Soft deleted";
   }
 }
\ No newline at end of file
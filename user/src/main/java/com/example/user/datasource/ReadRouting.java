@@ -0,0 +1,51 @@
+package com.example.user.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * ReadRouting: pins the reads of the current thread to the primary database.
+ *
+ * {@link ReplicaRoutingDataSource} serves read-only transactions from a replica unless the thread
+ * is pinned. Pinning is used for read-your-writes (see {@link ReadYourWritesFilter}) and for reads
+ * whose result outlives the request, such as cache fills, which must not capture a replica that
+ * has not caught up yet. Without replicas configured pinning has no effect.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    /**
+     * Pin the current thread.
+     * @return the previous state, to pass to {@link #restore}
+     */
+    public static boolean pinToPrimary() {
+        boolean previous = isPinnedToPrimary();
+        PINNED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void restore(boolean previous) {
+        if (!previous) {
+            PINNED.remove();
+        }
+    }
+
+    /**
+     * Run work with the current thread pinned to the primary.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean previous = pinToPrimary();
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+}
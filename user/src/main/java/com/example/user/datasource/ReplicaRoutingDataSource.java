@@ -0,0 +1,219 @@
+package com.example.user.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * ReplicaRoutingDataSource: the read-only side of the user service's DataSource. The
+ * LazyConnectionDataSourceProxy built in DataSourceConfig takes connections for read-only
+ * transactions from here and for everything else from the primary.
+ *
+ * A read gets a connection from the healthy replica with the fewest busy connections (active
+ * connections plus threads waiting in its Hikari pool; ties rotate), and from the primary when
+ * <ul>
+ *   <li>the thread is pinned with {@link ReadRouting} (read-your-writes, cache fills),</li>
+ *   <li>no replica is healthy, or every healthy replica failed to hand out a connection.</li>
+ * </ul>
+ * A replica that fails to hand out a connection is marked down at once. A background check every
+ * health-interval marks replicas up or down again by validating a connection and, when max-lag is
+ * set, by their replication delay (SHOW REPLICA STATUS, Seconds_Behind_Source).
+ *
+ * Metrics: user.datasource.reads (route=replica|pinned|failover) and
+ * user.datasource.replica.healthy (1 or 0 per replica).
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final class Replica {
+        final HikariDataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        int load() {
+            // The pool starts on its first connection; until then it is idle.
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration healthInterval;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+    private final Counter failoverReads;
+    private volatile boolean running = true;
+    private Thread checker;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<HikariDataSource> replicas,
+                                    Duration healthInterval,
+                                    Duration maxLag,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.healthInterval = healthInterval;
+        this.maxLag = maxLag;
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.pinnedReads = readCounter(meterRegistry, "pinned");
+        this.failoverReads = readCounter(meterRegistry, "failover");
+        for (Replica replica : this.replicas) {
+            Gauge.builder("user.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                .description("1 while the replica receives reads, 0 while it is marked down")
+                .tag("replica", replica.dataSource.getPoolName())
+                .register(meterRegistry);
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("user.datasource.reads")
+            .description("Connections for read-only transactions by where they came from; pinned and failover are the primary")
+            .tag("route", route)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!replicas.isEmpty()) {
+            checker = Thread.ofPlatform().name("replica-health").daemon().start(this::checkLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (checker != null) {
+            checker.interrupt();
+            checker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadRouting.isPinnedToPrimary()) {
+            pinnedReads.increment();
+            return primary.getConnection();
+        }
+        for (Replica replica : healthyByLoad()) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        failoverReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    private List<Replica> healthyByLoad() {
+        int size = replicas.size();
+        List<Replica> healthy = new ArrayList<>(size);
+        int offset = size == 0 ? 0 : Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((offset + i) % size);
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        // Stable sort: replicas with equal load keep the rotated order.
+        healthy.sort(Comparator.comparingInt(Replica::load));
+        return healthy;
+    }
+
+    private void checkLoop() {
+        while (running) {
+            for (Replica replica : replicas) {
+                check(replica);
+            }
+            try {
+                Thread.sleep(healthInterval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void check(Replica replica) {
+        String problem;
+        try (Connection connection = replica.dataSource.getConnection()) {
+            problem = connection.isValid(VALIDATION_TIMEOUT_SECONDS) ? lagProblem(connection) : "connection is not valid";
+        } catch (SQLException e) {
+            problem = e.getMessage();
+        }
+        if (problem != null) {
+            markDown(replica, problem);
+        } else if (!replica.healthy) {
+            replica.healthy = true;
+            log.info("Read replica {} is back up", replica.dataSource.getPoolName());
+        }
+    }
+
+    /**
+     * Null when the replica is within max-lag (or the lag check is off), otherwise why it is not.
+     */
+    private String lagProblem(Connection connection) throws SQLException {
+        if (maxLag.isZero()) {
+            return null;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                return "not configured as a replica";
+            }
+            long lag = status.getLong("Seconds_Behind_Source");
+            if (status.wasNull()) {
+                return "replication is not running";
+            }
+            return lag > maxLag.toSeconds() ? "replication lag of " + lag + "s" : null;
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Read replica {} marked down, its reads go elsewhere: {}", replica.dataSource.getPoolName(), reason);
+        }
+    }
+}
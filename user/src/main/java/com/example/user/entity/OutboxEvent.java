@@ -0,0 +1,77 @@
+package com.example.user.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * @Entity: An event waiting to be relayed to RabbitMQ (transactional outbox).
+ * Rows are written in the same transaction as the change they describe and deleted by
+ * OutboxRelay once the broker has confirmed them, giving at-least-once delivery.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_aggregate", columnList = "aggregateKey"))
+public class OutboxEvent {
+  /**
+   * @Id: Ids come from a pooled sequence so outbox rows batch with the User inserts,
+   * and their order is the relay order.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+  @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+  private Long id;
+
+  // The user the event is about (email); events for one key are relayed in id order.
+  private String aggregateKey;
+
+  private String routingKey;
+
+  // Fully qualified class name of the payload, used to rebuild the message on relay.
+  private String payloadType;
+
+  @Lob
+  @Column(columnDefinition = "TEXT")
+  private String payload;
+
+  private java.time.LocalDateTime createdDate;
+
+  public OutboxEvent() {}
+
+  public OutboxEvent(String aggregateKey, String routingKey, String payloadType, String payload) {
+    this.aggregateKey = aggregateKey;
+    this.routingKey = routingKey;
+    this.payloadType = payloadType;
+    this.payload = payload;
+    this.createdDate = java.time.LocalDateTime.now();
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getAggregateKey() {
+    return aggregateKey;
+  }
+
+  public String getRoutingKey() {
+    return routingKey;
+  }
+
+  public String getPayloadType() {
+    return payloadType;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public java.time.LocalDateTime getCreatedDate() {
+    return createdDate;
+  }
+}
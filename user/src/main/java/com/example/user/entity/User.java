@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.EntityListeners;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -49,10 +50,13 @@ public class User implements Serializable{
   }
   /**
    * @Id: Marks this field as the primary key of the entity.
-   * @GeneratedValue(strategy=GenerationType.AUTO): Automatically generates the primary key value.
+   * @GeneratedValue(strategy=GenerationType.SEQUENCE): Ids come from the pooled "user_seq" generator,
+   * which reserves allocationSize ids per round trip. Unlike IDENTITY this lets Hibernate batch inserts.
+   * On MySQL the sequence is emulated by the user_seq table Hibernate already created for AUTO.
    */
   @Id
-  @GeneratedValue(strategy=GenerationType.AUTO)
+  @GeneratedValue(strategy=GenerationType.SEQUENCE, generator = "user_seq")
+  @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
   private Integer id;
 
   private String name;
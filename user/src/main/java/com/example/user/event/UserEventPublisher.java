@@ -1,34 +1,92 @@
 package com.example.user.event;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.example.user.config.RabbitMQConfig;
+import com.example.user.entity.OutboxEvent;
+import com.example.user.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records user events in the transactional outbox. Each call joins the caller's transaction,
+ * so the event is stored if and only if the change it describes commits; OutboxRelay then
+ * delivers it to RabbitMQ in the background. The time spent recording events is exposed as
+ * user.events.record.latency; the broker publish itself is timed by OutboxRelay.
+ */
 @Service
 public class UserEventPublisher {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final Timer recordTimer;
 
     @Autowired
-    public UserEventPublisher(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public UserEventPublisher(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.recordTimer = Timer.builder("user.events.record.latency")
+            .description("Time to record user events in the outbox")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
     }
 
     public void publishUserCreatedEvent(UserCreatedEvent event) {
-        rabbitTemplate.convertAndSend(
-            RabbitMQConfig.EXCHANGE_NAME,
-            RabbitMQConfig.ROUTING_KEY,
-            event
-        );
+        record(() -> outboxEventRepository.save(toOutbox(event.getEmail(), RabbitMQConfig.ROUTING_KEY, event)));
     }
 
     public void publishUserCreationFailedEvent(UserCreationFailedEvent event) {
-        rabbitTemplate.convertAndSend(
-            RabbitMQConfig.EXCHANGE_NAME,
-            RabbitMQConfig.ROUTING_KEY_FAILURE,
-            event
-        );
+        record(() -> outboxEventRepository.save(toOutbox(event.getAttemptedEmail(), RabbitMQConfig.ROUTING_KEY_FAILURE, event)));
+    }
+
+    /**
+     * Records a batch of events; the inserts go out as one JDBC batch.
+     */
+    public void publishUserCreatedEvents(List<UserCreatedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (UserCreatedEvent event : events) {
+            rows.add(toOutbox(event.getEmail(), RabbitMQConfig.ROUTING_KEY, event));
+        }
+        record(() -> outboxEventRepository.saveAll(rows));
+    }
+
+    public void publishUserCreationFailedEvents(List<UserCreationFailedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (UserCreationFailedEvent event : events) {
+            rows.add(toOutbox(event.getAttemptedEmail(), RabbitMQConfig.ROUTING_KEY_FAILURE, event));
+        }
+        record(() -> outboxEventRepository.saveAll(rows));
+    }
+
+    private void record(Runnable write) {
+        Timer.Sample sample = Timer.start();
+        try {
+            write.run();
+        } finally {
+            sample.stop(recordTimer);
+        }
+    }
+
+    private OutboxEvent toOutbox(String aggregateKey, String routingKey, Object event) {
+        try {
+            return new OutboxEvent(aggregateKey, routingKey, event.getClass().getName(),
+                objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event.getClass().getSimpleName(), e);
+        }
     }
 
 }
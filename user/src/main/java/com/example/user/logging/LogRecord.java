@@ -0,0 +1,44 @@
+package com.example.user.logging;
+
+import java.time.LocalDateTime;
+
+/**
+ * A log line shipped to log-service; mirrors log-service's LogEntry (service, message, timestamp).
+ */
+public class LogRecord {
+    private String service;
+    private String message;
+    private LocalDateTime timestamp;
+
+    public LogRecord() {}
+
+    public LogRecord(String service, String message, LocalDateTime timestamp) {
+        this.service = service;
+        this.message = message;
+        this.timestamp = timestamp;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
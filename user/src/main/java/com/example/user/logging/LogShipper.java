@@ -0,0 +1,113 @@
+package com.example.user.logging;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.user.config.RabbitMQConfig;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * LogShipper: asynchronous appender that ships log lines to log-service over RabbitMQ.
+ * {@link #log} only enqueues into a bounded buffer and never blocks the request thread; a
+ * background virtual thread publishes queued lines in batches over one channel. If the buffer is
+ * full (broker down, log storm) lines are dropped and counted rather than slowing requests down.
+ */
+@Component
+public class LogShipper {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String serviceName;
+    private final int batchSize;
+    private final BlockingQueue<LogRecord> buffer;
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean running = true;
+    private Thread sender;
+
+    public LogShipper(RabbitTemplate rabbitTemplate,
+                      @Value("${spring.application.name:user}") String serviceName,
+                      @Value("${user.log-shipper.buffer-size:10000}") int bufferSize,
+                      @Value("${user.log-shipper.batch-size:200}") int batchSize,
+                      MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.serviceName = serviceName;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        Gauge.builder("user.log-shipper.queued", buffer, BlockingQueue::size)
+            .description("Log lines waiting to be shipped to log-service")
+            .register(meterRegistry);
+        FunctionCounter.builder("user.log-shipper.dropped", dropped, LongAdder::sum)
+            .description("Log lines dropped because the buffer was full or the broker refused them")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        sender = Thread.ofVirtual().name("log-shipper").start(this::sendLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        sender.interrupt();
+        sender.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public void log(String message) {
+        if (!buffer.offer(new LogRecord(serviceName, message, LocalDateTime.now()))) {
+            dropped.increment();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getQueued() {
+        return buffer.size();
+    }
+
+    private void sendLoop() {
+        List<LogRecord> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                LogRecord first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Shutting down: send whatever is left.
+            }
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                rabbitTemplate.invoke(operations -> {
+                    for (LogRecord record : batch) {
+                        operations.convertAndSend(RabbitMQConfig.LOG_EXCHANGE_NAME, RabbitMQConfig.LOG_ROUTING_KEY, record);
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                dropped.add(batch.size());
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.user.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.user.entity.OutboxEvent;
+
+import jakarta.persistence.LockModeType;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+		// Oldest events first. The row lock keeps a second relay instance from publishing the same
+		// batch concurrently (and out of order) while this one waits for confirms.
+		@Lock(LockModeType.PESSIMISTIC_WRITE)
+		@Query("select e from OutboxEvent e order by e.id")
+		List<OutboxEvent> findBatchForRelay(Pageable pageable);
+}
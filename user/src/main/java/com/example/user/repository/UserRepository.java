@@ -1,6 +1,12 @@
 package com.example.user.repository;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import com.example.user.entity.User;
@@ -8,9 +14,40 @@ import com.example.user.entity.User;
 // This will be AUTO IMPLEMENTED by Spring into a Bean called userRepository
 // CRUD refers Create, Read, Update, Delete
 
-public interface UserRepository extends CrudRepository<User, Integer> {
+// Read-only transactions may be served by a read replica (user.datasource.replica-urls); the
+// inherited findById/findAll already run read-only.
+public interface UserRepository extends JpaRepository<User, Integer> {
+		@Transactional(readOnly = true)
 		Optional<User> findByEmail(String email);
 
+		@Transactional(readOnly = true)
 		Iterable<User> findAllByDeletedTrue();
 
+		@Transactional(readOnly = true)
+		Iterable<User> findAllByDeletedFalse();
+
+		// Keyset pages: the cursor is the last id seen, so MySQL seeks on the primary key
+		// instead of scanning and discarding OFFSET rows.
+		@Transactional(readOnly = true)
+		List<User> findByDeletedFalseAndIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
+
+		@Transactional(readOnly = true)
+		List<User> findByDeletedTrueAndIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
+
+		// Id/email projection used to warm the registered-email Bloom filter page by page.
+		@Transactional(readOnly = true)
+		List<EmailView> findByIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
+
+		interface EmailView {
+				Integer getId();
+
+				String getEmail();
+		}
+
+		// Set-based duplicate check used by bulk import: one IN query per chunk instead of one lookup per row.
+		// Not read-only on purpose: it must see the primary, or a replica that is behind lets duplicates
+		// through to the unique constraint.
+		@Query("select u.email from User u where u.email in :emails")
+		List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.example.user.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.example.user.cache.BloomFilter;
+import com.example.user.datasource.ReadRouting;
+import com.example.user.repository.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory Bloom filter of every registered email, used to skip the duplicate-email SELECT
+ * on signup when the email is definitely new. The unique constraint on User.email remains the
+ * final authority; a "maybe" from the filter just falls back to the database lookup.
+ * <p>
+ * The filter is built in the background from the User table at startup and can be rebuilt on
+ * demand (for example after bulk changes, or when it has grown past its sized capacity).
+ * Until the first build finishes every email is reported as "maybe present".
+ */
+@Service
+public class RegisteredEmailFilter {
+
+    private final UserRepository userRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final int warmupPageSize;
+    private final ExecutorService rebuildExecutor =
+        Executors.newSingleThreadExecutor(Thread.ofPlatform().name("email-filter-rebuild").daemon().factory());
+
+    private volatile BloomFilter active;
+    private volatile BloomFilter building;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder maybeHits = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    public RegisteredEmailFilter(UserRepository userRepository,
+                                 @Value("${user.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                                 @Value("${user.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${user.email-filter.warmup-page-size:5000}") int warmupPageSize) {
+        this.userRepository = userRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.warmupPageSize = warmupPageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuildAsync();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * @return false only if the email has definitely never been registered
+     */
+    public boolean mightContain(String email) {
+        BloomFilter filter = active;
+        if (filter == null || filter.mightContain(normalize(email))) {
+            maybeHits.increment();
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    public void add(String email) {
+        String key = normalize(email);
+        BloomFilter filter = active;
+        if (filter != null) filter.put(key);
+        // Emails registered while a rebuild is scanning must also land in the new filter.
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(key);
+        } else if (active != filter) {
+            // A rebuild swapped in its filter and cleared building after we read active: the put
+            // above went into the retired filter. The swap happens before building is cleared, so
+            // a second read of active sees the new one.
+            active.put(key);
+        }
+    }
+
+    /**
+     * Start a background rebuild unless one is already running.
+     * @return true if a rebuild was started
+     */
+    public boolean rebuildAsync() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildExecutor.execute(() -> {
+            try {
+                // The filter outlives the scan: built from a lagging replica it would report
+                // recently registered emails as definitely new.
+                ReadRouting.onPrimary(() -> {
+                    rebuild();
+                    return null;
+                });
+            } finally {
+                building = null;
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        long rows = userRepository.count();
+        BloomFilter next = new BloomFilter(Math.max(expectedInsertions, rows * 2), falsePositiveRate);
+        building = next;
+        int cursor = 0;
+        while (true) {
+            List<UserRepository.EmailView> page =
+                userRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.ofSize(warmupPageSize));
+            for (UserRepository.EmailView view : page) {
+                if (view.getEmail() != null) next.put(normalize(view.getEmail()));
+            }
+            if (page.size() < warmupPageSize) {
+                break;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
+        active = next;
+        lastRebuildMillis = System.currentTimeMillis() - start;
+    }
+
+    // MySQL's default collation compares emails case-insensitively, so the filter must too.
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isReady() {
+        return active != null;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    public BloomFilter getActiveFilter() {
+        return active;
+    }
+
+    public long getDefiniteMisses() {
+        return definiteMisses.sum();
+    }
+
+    public long getMaybeHits() {
+        return maybeHits.sum();
+    }
+
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.user.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.user.entity.User;
+import com.example.user.event.UserCreatedEvent;
+import com.example.user.event.UserEventPublisher;
+import com.example.user.repository.UserRepository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * SignupCoalescer: group commit for /rest/add (user.signup.coalesce.enabled).
+ *
+ * Signups are queued and a writer thread collects them for up to window-ms after the first one
+ * arrives (or until max-batch-size are waiting). The batch is checked for duplicates with one IN
+ * query and inserted in one transaction, users and outbox events each as one JDBC batch (a
+ * multi-row INSERT with rewriteBatchedStatements), so a burst of signups pays for one commit
+ * instead of one per signup. Every caller gets its own {@link Outcome} through its future.
+ *
+ * If the batch insert hits the unique constraint (a signup on another instance took an email
+ * after the IN query), the batch is retried one signup per transaction so only the conflicting
+ * callers see DUPLICATE.
+ *
+ * Metrics: user.signup.batch.size (signups per commit), user.signup.coalesce.wait (time a signup
+ * waits in the queue before its batch is written, i.e. the latency group commit adds) and
+ * user.signup.commit.latency (time to write one batch).
+ */
+@Service
+public class SignupCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(SignupCoalescer.class);
+
+    public enum Outcome { CREATED, DUPLICATE }
+
+    private record Signup(String name, String email, long queuedAt, CompletableFuture<Outcome> result) {
+    }
+
+    private final UserRepository userRepository;
+    private final UserEventPublisher eventPublisher;
+    private final UserRegistrationService userRegistrationService;
+    private final TransactionTemplate transactionTemplate;
+    private final UserTableVersion userTableVersion;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<Signup> queue;
+    private final DistributionSummary batchSize;
+    private final Timer waitTimer;
+    private final Timer commitTimer;
+    private volatile boolean running = true;
+    private Thread writer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SignupCoalescer(UserRepository userRepository,
+                           UserEventPublisher eventPublisher,
+                           UserRegistrationService userRegistrationService,
+                           TransactionTemplate transactionTemplate,
+                           UserTableVersion userTableVersion,
+                           MeterRegistry meterRegistry,
+                           @Value("${user.signup.coalesce.enabled:false}") boolean enabled,
+                           @Value("${user.signup.coalesce.window-ms:5}") long windowMillis,
+                           @Value("${user.signup.coalesce.max-batch-size:200}") int maxBatchSize,
+                           @Value("${user.signup.coalesce.queue-capacity:10000}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.userRegistrationService = userRegistrationService;
+        this.transactionTemplate = transactionTemplate;
+        this.userTableVersion = userTableVersion;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = DistributionSummary.builder("user.signup.batch.size")
+            .description("Signups inserted per commit")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.waitTimer = Timer.builder("user.signup.coalesce.wait")
+            .description("Time a signup waits to be written in a batch")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.commitTimer = Timer.builder("user.signup.commit.latency")
+            .description("Time to check and insert one batch of signups")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("user.signup.queue.depth", queue, BlockingQueue::size)
+            .description("Signups waiting to be written")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            writer = Thread.ofPlatform().name("signup-coalescer").daemon().start(this::writeLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a signup for the next batch.
+     * @return the outcome once the batch is committed, or null if the queue is full; the caller
+     *         should shed load (HTTP 429)
+     */
+    public CompletableFuture<Outcome> submit(String name, String email) {
+        Signup signup = new Signup(name, email, System.nanoTime(), new CompletableFuture<>());
+        return queue.offer(signup) ? signup.result() : null;
+    }
+
+    private void writeLoop() {
+        List<Signup> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Signup first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.queuedAt() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Signup next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: write what was collected, then drain the queue.
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Signup> batch) {
+        long started = System.nanoTime();
+        for (Signup signup : batch) {
+            waitTimer.record(started - signup.queuedAt(), TimeUnit.NANOSECONDS);
+        }
+        try {
+            Set<String> emails = new HashSet<>();
+            for (Signup signup : batch) {
+                emails.add(signup.email());
+            }
+            Set<String> existing = new HashSet<>(userRepository.findExistingEmails(emails));
+
+            List<Signup> accepted = new ArrayList<>(batch.size());
+            List<Signup> duplicates = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (Signup signup : batch) {
+                // Registered already, or a second signup for the same email in this batch.
+                if (existing.contains(signup.email()) || !seen.add(signup.email())) {
+                    duplicates.add(signup);
+                } else {
+                    accepted.add(signup);
+                }
+            }
+
+            List<Signup> created;
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertAll(accepted));
+                created = accepted;
+            } catch (DataIntegrityViolationException e) {
+                created = new ArrayList<>();
+                for (Signup signup : accepted) {
+                    try {
+                        userRegistrationService.register(signup.name(), signup.email());
+                        created.add(signup);
+                    } catch (DataIntegrityViolationException rowFailure) {
+                        duplicates.add(signup);
+                    }
+                }
+            }
+            batchSize.record(created.size());
+            for (Signup signup : created) {
+                signup.result().complete(Outcome.CREATED);
+            }
+            for (Signup signup : duplicates) {
+                signup.result().complete(Outcome.DUPLICATE);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Signup batch of {} failed: {}", batch.size(), e.getMessage());
+            for (Signup signup : batch) {
+                signup.result().completeExceptionally(e);
+            }
+        } finally {
+            commitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void insertAll(List<Signup> signups) {
+        List<User> users = new ArrayList<>(signups.size());
+        List<UserCreatedEvent> events = new ArrayList<>(signups.size());
+        for (Signup signup : signups) {
+            User user = new User();
+            user.setName(signup.name());
+            user.setEmail(signup.email());
+            users.add(user);
+            events.add(new UserCreatedEvent(signup.name(), signup.email()));
+        }
+        userRepository.saveAll(users);
+        eventPublisher.publishUserCreatedEvents(events);
+        userTableVersion.changed();
+        // Flush inside the transaction so a unique-constraint violation surfaces here, and detach
+        // the rows so the writer's persistence context does not grow. The flush goes through the
+        // repository so the violation arrives translated into DataIntegrityViolationException.
+        userRepository.flush();
+        entityManager.clear();
+    }
+}
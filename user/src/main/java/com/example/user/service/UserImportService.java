@@ -0,0 +1,262 @@
+package com.example.user.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.user.entity.User;
+import com.example.user.event.UserCreatedEvent;
+import com.example.user.event.UserCreationFailedEvent;
+import com.example.user.event.UserEventPublisher;
+import com.example.user.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Bulk user import.
+ * Rows are read from the request stream and processed in chunks: one IN query finds emails that
+ * already exist, and the remaining rows are inserted in one transaction with Hibernate JDBC batching,
+ * together with their outbox events.
+ */
+@Service
+public class UserImportService {
+
+    public static final String STATUS_CREATED = "CREATED";
+    public static final String STATUS_DUPLICATE = "DUPLICATE";
+    public static final String STATUS_INVALID = "INVALID";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final UserRepository userRepository;
+    private final UserEventPublisher eventPublisher;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final UserTableVersion userTableVersion;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserImportService(UserRepository userRepository,
+                             UserEventPublisher eventPublisher,
+                             RegisteredEmailFilter registeredEmailFilter,
+                             TransactionTemplate transactionTemplate,
+                             UserTableVersion userTableVersion,
+                             CacheManager cacheManager,
+                             ObjectMapper objectMapper,
+                             @Value("${user.import.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.transactionTemplate = transactionTemplate;
+        this.userTableVersion = userTableVersion;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Import "name,email" lines. A leading "name,email" header line is skipped.
+     */
+    public ImportReport importCsv(InputStream in) throws IOException {
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int row = 0;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] columns = line.split(",", -1);
+            if (row == 1 && columns.length >= 2
+                    && columns[0].trim().equalsIgnoreCase("name")
+                    && columns[1].trim().equalsIgnoreCase("email")) {
+                continue;
+            }
+            if (columns.length < 2) {
+                run.reject(row, null, "Expected name,email");
+                continue;
+            }
+            run.add(row, columns[0].trim(), columns[1].trim());
+        }
+        return run.finish();
+    }
+
+    /**
+     * Import a JSON array of {"name": ..., "email": ...} objects, or the same objects as NDJSON.
+     * The parser is streamed, so only the current chunk is held in memory.
+     */
+    public ImportReport importJson(InputStream in) throws IOException {
+        ImportRun run = new ImportRun();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            int row = 0;
+            while (token == JsonToken.START_OBJECT) {
+                row++;
+                JsonNode node = parser.readValueAsTree();
+                run.add(row, text(node, "name"), text(node, "email"));
+                token = parser.nextToken();
+            }
+        }
+        return run.finish();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText().trim();
+    }
+
+    private void processChunk(List<PendingRow> chunk, List<RowResult> results) {
+        Set<String> emails = new HashSet<>();
+        for (PendingRow pending : chunk) {
+            emails.add(pending.email());
+        }
+        Set<String> existing = new HashSet<>(userRepository.findExistingEmails(emails));
+
+        List<PendingRow> accepted = new ArrayList<>();
+        List<UserCreationFailedEvent> failedEvents = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (PendingRow pending : chunk) {
+            if (existing.contains(pending.email())) {
+                results.add(new RowResult(pending.row(), pending.email(), STATUS_DUPLICATE, "Email already registered"));
+                failedEvents.add(new UserCreationFailedEvent(pending.email(), "Email already registered"));
+            } else if (!seen.add(pending.email())) {
+                results.add(new RowResult(pending.row(), pending.email(), STATUS_DUPLICATE, "Duplicate email in import"));
+                failedEvents.add(new UserCreationFailedEvent(pending.email(), "Duplicate email in import"));
+            } else {
+                accepted.add(pending);
+            }
+        }
+
+        List<PendingRow> created;
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertAll(accepted));
+            created = accepted;
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent signup took one of the emails between the IN query and the insert.
+            // Retry the chunk row by row so only the conflicting rows fail.
+            entityManager.clear();
+            created = new ArrayList<>();
+            for (PendingRow pending : accepted) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertAll(List.of(pending)));
+                    created.add(pending);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    entityManager.clear();
+                    results.add(new RowResult(pending.row(), pending.email(), STATUS_FAILED, "Email already registered"));
+                    failedEvents.add(new UserCreationFailedEvent(pending.email(), "Email already registered"));
+                }
+            }
+        }
+
+        Cache cache = cacheManager.getCache("userByEmail");
+        for (PendingRow pending : created) {
+            results.add(new RowResult(pending.row(), pending.email(), STATUS_CREATED, null));
+            registeredEmailFilter.add(pending.email());
+            // Drop any cached "not found" answer for the new email.
+            if (cache != null) cache.evict(pending.email());
+        }
+        eventPublisher.publishUserCreationFailedEvents(failedEvents);
+    }
+
+    private void insertAll(List<PendingRow> rows) {
+        List<User> users = new ArrayList<>(rows.size());
+        List<UserCreatedEvent> events = new ArrayList<>(rows.size());
+        for (PendingRow pending : rows) {
+            User user = new User();
+            user.setName(pending.name());
+            user.setEmail(pending.email());
+            users.add(user);
+            events.add(new UserCreatedEvent(pending.name(), pending.email()));
+        }
+        userRepository.saveAll(users);
+        // Outbox rows commit (or roll back) together with the users they announce.
+        eventPublisher.publishUserCreatedEvents(events);
+        userTableVersion.changed();
+        // Flush the JDBC batch now and detach the rows, so the persistence context does not grow
+        // across chunks when the request runs with open-in-view. Flushing through the repository
+        // translates a unique-constraint violation into DataIntegrityViolationException.
+        userRepository.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Accumulates rows for one import request and flushes them chunk by chunk.
+     */
+    private class ImportRun {
+        private final long startNanos = System.nanoTime();
+        private final List<PendingRow> chunk = new ArrayList<>();
+        private final List<RowResult> results = new ArrayList<>();
+
+        void add(int row, String name, String email) {
+            if (email == null || email.isEmpty()) {
+                reject(row, email, "Missing email");
+                return;
+            }
+            chunk.add(new PendingRow(row, name, email));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(int row, String email, String message) {
+            results.add(new RowResult(row, email, STATUS_INVALID, message));
+        }
+
+        void flush() {
+            if (!chunk.isEmpty()) {
+                processChunk(new ArrayList<>(chunk), results);
+                chunk.clear();
+            }
+        }
+
+        ImportReport finish() {
+            flush();
+            results.sort((a, b) -> Integer.compare(a.row(), b.row()));
+            int created = 0, duplicates = 0, invalid = 0, failed = 0;
+            for (RowResult result : results) {
+                switch (result.status()) {
+                    case STATUS_CREATED -> created++;
+                    case STATUS_DUPLICATE -> duplicates++;
+                    case STATUS_INVALID -> invalid++;
+                    default -> failed++;
+                }
+            }
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            return new ImportReport(results.size(), created, duplicates, invalid, failed, elapsedMillis, results);
+        }
+    }
+
+    private record PendingRow(int row, String name, String email) {}
+
+    /**
+     * Outcome of a single input row. Row numbers are 1-based in input order.
+     */
+    public record RowResult(int row, String email, String status, String message) {}
+
+    public record ImportReport(int total, int created, int duplicates, int invalid, int failed,
+                               long elapsedMillis, List<RowResult> rows) {}
+}
@@ -0,0 +1,160 @@
+package com.example.user.service;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.example.user.datasource.ReadRouting;
+import com.example.user.entity.User;
+import com.example.user.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Cached user lookup by email with stampede protection.
+ * <ul>
+ *   <li>Single-flight: concurrent misses for the same email share one database query.</li>
+ *   <li>Negative caching: unknown emails are cached as empty entries with a short TTL.</li>
+ *   <li>Probabilistic early refresh (XFetch): a request may recompute an entry shortly before it
+ *       expires, with a probability that rises as expiry nears, so hot keys never expire all at once.</li>
+ * </ul>
+ * Metrics: user.lookup.requests (result=hit|miss|refresh), user.lookup.latency for the whole call
+ * and user.lookup.load.latency for the database query on a miss.
+ */
+@Service
+public class UserLookupService {
+
+    public static final String CACHE_NAME = "userByEmail";
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final long positiveTtlMillis;
+    private final long negativeTtlMillis;
+    private final double earlyRefreshBeta;
+    private final ConcurrentMap<String, CompletableFuture<CachedLookup>> inFlight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshes;
+    private final Timer lookupTimer;
+    private final Timer loadTimer;
+
+    public UserLookupService(UserRepository userRepository,
+                             CacheManager cacheManager,
+                             @Value("${user.cache.user-by-email.ttl:10m}") Duration positiveTtl,
+                             @Value("${user.cache.user-by-email.negative-ttl:30s}") Duration negativeTtl,
+                             @Value("${user.cache.user-by-email.early-refresh-beta:1.0}") double earlyRefreshBeta,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.positiveTtlMillis = positiveTtl.toMillis();
+        this.negativeTtlMillis = negativeTtl.toMillis();
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.refreshes = lookupCounter(meterRegistry, "refresh");
+        this.lookupTimer = Timer.builder("user.lookup.latency")
+            .description("Time to answer a userByEmail lookup, cache hits included")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.loadTimer = Timer.builder("user.lookup.load.latency")
+            .description("Time of the database query behind a userByEmail cache miss")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("user.lookup.requests")
+            .description("userByEmail lookups by outcome; refresh is an early recompute of a live entry")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Find a user that is not soft deleted.
+     */
+    public Optional<User> findActiveByEmail(String email) {
+        Timer.Sample sample = Timer.start();
+        try {
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            CachedLookup cached = cache != null ? asLookup(cache.get(email)) : null;
+            if (cached != null && !cached.shouldRefresh(System.currentTimeMillis(), earlyRefreshBeta)) {
+                hits.increment();
+                return Optional.ofNullable(cached.user());
+            }
+            (cached != null ? refreshes : misses).increment();
+            return Optional.ofNullable(load(email, cache, cached).user());
+        } finally {
+            sample.stop(lookupTimer);
+        }
+    }
+
+    private CachedLookup load(String email, Cache cache, CachedLookup seen) {
+        CompletableFuture<CachedLookup> mine = new CompletableFuture<>();
+        CompletableFuture<CachedLookup> leader = inFlight.putIfAbsent(email, mine);
+        if (leader != null) {
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            // Another leader may have finished between our cache read and putIfAbsent.
+            CachedLookup fresh = cache != null ? asLookup(cache.get(email)) : null;
+            if (fresh != null && (seen == null || fresh.createdAt() > seen.createdAt())
+                    && fresh.expiresAt() > System.currentTimeMillis()) {
+                mine.complete(fresh);
+                return fresh;
+            }
+            long start = System.currentTimeMillis();
+            // Read the primary: an entry loaded from a replica that is behind would be served for its whole TTL.
+            User user = ReadRouting.onPrimary(() -> userRepository.findByEmail(email)).filter(u -> !u.isDeleted()).orElse(null);
+            long now = System.currentTimeMillis();
+            loadTimer.record(Duration.ofMillis(now - start));
+            long ttl = user != null ? positiveTtlMillis : negativeTtlMillis;
+            CachedLookup lookup = new CachedLookup(user, now, now + ttl, now - start);
+            if (cache != null) {
+                cache.put(email, lookup);
+            }
+            mine.complete(lookup);
+            return lookup;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(email, mine);
+        }
+    }
+
+    private static CachedLookup asLookup(Cache.ValueWrapper wrapper) {
+        // Entries written before this cache format existed (User or error strings) are treated as misses.
+        return wrapper != null && wrapper.get() instanceof CachedLookup lookup ? lookup : null;
+    }
+
+    /**
+     * Cache value for userByEmail. A null user is a negative entry.
+     *
+     * @param createdAt      when the entry was computed (epoch millis)
+     * @param expiresAt      logical expiry (epoch millis)
+     * @param computeMillis  how long the database lookup took; longer loads refresh earlier
+     */
+    public record CachedLookup(User user, long createdAt, long expiresAt, long computeMillis) implements Serializable {
+
+        boolean shouldRefresh(long now, double beta) {
+            double gap = -Math.max(computeMillis, 1) * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+            return now + gap >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.user.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.user.entity.User;
+import com.example.user.event.UserCreatedEvent;
+import com.example.user.event.UserEventPublisher;
+import com.example.user.repository.UserRepository;
+
+/**
+ * Creates a user and its UserCreatedEvent outbox row in one transaction.
+ */
+@Service
+public class UserRegistrationService {
+
+    private final UserRepository userRepository;
+    private final UserEventPublisher eventPublisher;
+    private final UserTableVersion userTableVersion;
+
+    public UserRegistrationService(UserRepository userRepository, UserEventPublisher eventPublisher,
+                                   UserTableVersion userTableVersion) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.userTableVersion = userTableVersion;
+    }
+
+    /**
+     * @throws org.springframework.dao.DataIntegrityViolationException if the email is already registered
+     */
+    @Transactional
+    public User register(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        // Flush so a unique-constraint violation surfaces here rather than at commit. Flushing through
+        // the repository translates it into DataIntegrityViolationException; a raw EntityManager
+        // flush would throw Hibernate's ConstraintViolationException instead.
+        userRepository.saveAndFlush(user);
+        eventPublisher.publishUserCreatedEvent(new UserCreatedEvent(name, email));
+        userTableVersion.changed();
+        return user;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.user.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Table-level version of the User table, kept in Redis so every instance agrees on it. It backs
+ * the ETag and Last-Modified headers of the user read endpoints: a conditional request is answered
+ * from this watermark alone, without touching MySQL.
+ *
+ * The Redis hash (user.etag.key) holds
+ * <ul>
+ *   <li>epoch: when the hash was created; part of the ETag so a version number restarting after
+ *       the hash was lost never repeats an old ETag,</li>
+ *   <li>version: incremented after every committed change to the table,</li>
+ *   <li>modified: epoch millis of the last change (Last-Modified).</li>
+ * </ul>
+ * Every write path calls {@link #changed()}; inside a transaction the bump runs after commit, so a
+ * reader can never see the new version together with the old rows. Readers must take the
+ * watermark before they query. The hash expires after user.etag.ttl without changes, which also
+ * bounds how long a bump lost to a Redis error can serve stale 304s.
+ *
+ * Reads and bumps are each one Lua script on the template's shared connection: a pipeline would
+ * take a dedicated connection per call, which under load means a new connection (or a pool borrow)
+ * per write and per cold read.
+ *
+ * Metrics: user.etag.requests (result=not_modified|modified).
+ */
+@Service
+public class UserTableVersion {
+
+    private static final Logger log = LoggerFactory.getLogger(UserTableVersion.class);
+
+    private static final String EPOCH = "epoch";
+    private static final String VERSION = "version";
+    private static final String MODIFIED = "modified";
+
+    /** Start an epoch if there is none, then return the hash. ARGV: now millis, ttl seconds. */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ = RedisScript.of(
+        "if redis.call('HSETNX', KEYS[1], 'epoch', ARGV[1]) == 1 then\n"
+            + "  redis.call('HSETNX', KEYS[1], 'modified', ARGV[1])\n"
+            + "  redis.call('EXPIRE', KEYS[1], ARGV[2])\n"
+            + "end\n"
+            + "return redis.call('HGETALL', KEYS[1])", List.class);
+
+    /** Start an epoch if there is none and count a change. ARGV: now millis, ttl seconds. */
+    private static final RedisScript<Long> BUMP = RedisScript.of(
+        "redis.call('HSETNX', KEYS[1], 'epoch', ARGV[1])\n"
+            + "redis.call('HSET', KEYS[1], 'modified', ARGV[1])\n"
+            + "redis.call('EXPIRE', KEYS[1], ARGV[2])\n"
+            + "return redis.call('HINCRBY', KEYS[1], 'version', 1)", Long.class);
+
+    /**
+     * @param etag     strong entity tag, unquoted
+     * @param modified epoch millis of the last change
+     */
+    public record Watermark(String etag, long modified) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final Duration ttl;
+    private final Counter notModified;
+    private final Counter modified;
+
+    public UserTableVersion(StringRedisTemplate redisTemplate,
+                            @Value("${user.etag.key:user.table.version}") String key,
+                            @Value("${user.etag.ttl:1d}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.ttl = ttl;
+        this.notModified = etagCounter(meterRegistry, "not_modified");
+        this.modified = etagCounter(meterRegistry, "modified");
+    }
+
+    private static Counter etagCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("user.etag.requests")
+            .description("User reads served with validators; not_modified was answered with 304 without a query")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Current watermark, or null when Redis cannot be reached (responses then carry no validators).
+     */
+    public Watermark current() {
+        try {
+            // The first read after a restart of Redis or an expiry starts a new epoch. The script
+            // is atomic, so concurrent readers agree on it.
+            List<?> fields = redisTemplate.execute(READ, List.of(key), now(), ttlSeconds());
+            Map<String, String> hash = new HashMap<>();
+            for (int i = 0; i + 1 < fields.size(); i += 2) {
+                hash.put((String) fields.get(i), (String) fields.get(i + 1));
+            }
+            long epoch = Long.parseLong(hash.get(EPOCH));
+            String version = hash.getOrDefault(VERSION, "0");
+            return new Watermark(Long.toString(epoch, 36) + "-" + version, Long.parseLong(hash.get(MODIFIED)));
+        } catch (RuntimeException e) {
+            log.warn("User table version unavailable, serving without validators: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Record a change to the User table; after commit when a transaction is active.
+     */
+    public void changed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump();
+                }
+            });
+        } else {
+            bump();
+        }
+    }
+
+    private void bump() {
+        try {
+            redisTemplate.execute(BUMP, List.of(key), now(), ttlSeconds());
+        } catch (RuntimeException e) {
+            log.warn("Could not bump the user table version, ETags may be stale for up to {}: {}", ttl, e.getMessage());
+        }
+    }
+
+    private static String now() {
+        return String.valueOf(System.currentTimeMillis());
+    }
+
+    private String ttlSeconds() {
+        return String.valueOf(ttl.toSeconds());
+    }
+
+    /**
+     * Count a read that had a watermark: answered with 304, or with the full body.
+     */
+    public void recordRead(boolean wasNotModified) {
+        (wasNotModified ? notModified : modified).increment();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.user.config;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class DataSourceConfigTests {
+
+	private static final Duration HEALTH_INTERVAL = Duration.ofSeconds(2);
+	private static final Duration WINDOW = Duration.ofSeconds(5);
+
+	@Test
+	void defaultsPass() {
+		assertDoesNotThrow(() -> DataSourceConfig.checkMaxLag(Duration.ofSeconds(1), HEALTH_INTERVAL, WINDOW));
+	}
+
+	@Test
+	void noLagCheckFailsStartup() {
+		assertThrows(IllegalStateException.class, () -> DataSourceConfig.checkMaxLag(Duration.ZERO, HEALTH_INTERVAL, WINDOW));
+	}
+
+	// A replica 2 s behind passes a 2 s max-lag, is not checked again for 2 s, and is then 4-5 s
+	// behind: list reads are already back on it with the new ETag.
+	@Test
+	void maxLagThatOutlastsTheWindowFailsStartup() {
+		assertThrows(IllegalStateException.class, () -> DataSourceConfig.checkMaxLag(Duration.ofSeconds(2), HEALTH_INTERVAL, WINDOW));
+		assertThrows(IllegalStateException.class, () -> DataSourceConfig.checkMaxLag(Duration.ofSeconds(5), HEALTH_INTERVAL, WINDOW));
+	}
+}
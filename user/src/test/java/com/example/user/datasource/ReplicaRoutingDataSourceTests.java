@@ -0,0 +1,90 @@
+package com.example.user.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Two embedded H2 databases stand in for the primary and a replica, wired the way DataSourceConfig
+ * wires them. Each database holds one row naming itself, so a query shows where it was routed.
+ */
+class ReplicaRoutingDataSourceTests {
+
+	private HikariDataSource primary;
+	private HikariDataSource replica;
+	private ReplicaRoutingDataSource routing;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+
+	@BeforeEach
+	void setUp() {
+		primary = database("primary");
+		replica = database("replica");
+		routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(1), Duration.ZERO,
+				new SimpleMeterRegistry());
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+		dataSource.setReadOnlyDataSource(routing);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		routing.stop();
+		primary.close();
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplica() {
+		assertEquals("replica", answeredBy(readOnly));
+		assertEquals("primary", answeredBy(readWrite));
+	}
+
+	@Test
+	void pinnedReadsGoToThePrimary() {
+		assertEquals("primary", ReadRouting.onPrimary(() -> answeredBy(readOnly)));
+		assertEquals("replica", answeredBy(readOnly));
+	}
+
+	@Test
+	void readsFailOverToThePrimaryWhenTheReplicaIsDown() {
+		replica.close();
+
+		assertEquals("primary", answeredBy(readOnly));
+		assertEquals("primary", answeredBy(readOnly));
+	}
+
+	private String answeredBy(TransactionTemplate transaction) {
+		return transaction.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+	}
+
+	private static HikariDataSource database(String name) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		dataSource.setUsername("sa");
+		dataSource.setPoolName(name);
+		dataSource.setConnectionTimeout(250);
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("create table if not exists node (name varchar(20))");
+		jdbc.update("delete from node");
+		jdbc.update("insert into node (name) values (?)", name);
+		return dataSource;
+	}
+}
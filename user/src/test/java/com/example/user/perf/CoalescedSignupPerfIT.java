@@ -0,0 +1,58 @@
+package com.example.user.perf;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.perf.LatencyReport;
+import com.example.perf.OpenLoad;
+import com.example.perf.PerfBaseline;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * /rest/add under a signup burst with group commit enabled (user.signup.coalesce.enabled). Reports
+ * request latency like {@link UserPerfIT}, plus the signups written per commit and the time
+ * signups waited for their batch.
+ *
+ * Run with mvn -Pperf verify. Rate: -Dperf.user.burst-rate (requests/s, default 250).
+ */
+@TestPropertySource(properties = "user.signup.coalesce.enabled=true")
+class CoalescedSignupPerfIT extends UserPerfSupport {
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void coalescedSignupLatency() throws Exception {
+		String base = "http://localhost:" + port + "/rest";
+		LatencyReport add;
+		try (OpenLoad load = new OpenLoad()) {
+			add = load.run("user.add.coalesced",
+				Double.parseDouble(System.getProperty("perf.user.burst-rate", "250")),
+				Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 10)),
+				Duration.ofSeconds(Long.getLong("perf.duration-seconds", 30)),
+				i -> HttpRequest.newBuilder(URI.create(base + "/add?name=User" + i + "&email=user" + i + "%40example.com"))
+					.POST(HttpRequest.BodyPublishers.noBody())
+					.timeout(Duration.ofSeconds(10))
+					.build());
+		}
+
+		DistributionSummary batchSize = meterRegistry.get("user.signup.batch.size").summary();
+		Timer wait = meterRegistry.get("user.signup.coalesce.wait").timer();
+		System.out.printf("[perf] user.add.coalesced: %d commits, %.1f signups/commit (max %.0f), wait mean %.2f ms, max %.2f ms%n",
+			batchSize.count(), batchSize.mean(), batchSize.max(), wait.mean(TimeUnit.MILLISECONDS), wait.max(TimeUnit.MILLISECONDS));
+
+		new PerfBaseline(Path.of("src/test/resources/perf-baseline.properties"))
+			.verify(List.of(add), Path.of("target/perf"));
+	}
+}
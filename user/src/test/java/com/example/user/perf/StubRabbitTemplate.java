@@ -0,0 +1,52 @@
+package com.example.user.perf;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+/**
+ * In-JVM stand-in for the broker: messages are converted exactly as in production and then
+ * counted per routing key instead of being sent. invoke() runs the callback on this template and
+ * confirms always succeed immediately, so OutboxRelay and LogShipper run their normal paths.
+ */
+class StubRabbitTemplate extends RabbitTemplate {
+
+	private final Map<String, LongAdder> sent = new ConcurrentHashMap<>();
+
+	StubRabbitTemplate(ConnectionFactory connectionFactory) {
+		// The connection factory is never used; RabbitTemplate only requires one to be set.
+		super(connectionFactory);
+		setMessageConverter(new Jackson2JsonMessageConverter());
+	}
+
+	@Override
+	public <T> T invoke(OperationsCallback<T> action, com.rabbitmq.client.ConfirmCallback acks,
+			com.rabbitmq.client.ConfirmCallback nacks) {
+		return action.doInRabbit(this);
+	}
+
+	@Override
+	public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+		sent.computeIfAbsent(routingKey, k -> new LongAdder()).increment();
+	}
+
+	@Override
+	public boolean waitForConfirms(long timeout) {
+		return true;
+	}
+
+	@Override
+	public void waitForConfirmsOrDie(long timeout) {
+	}
+
+	long sent(String routingKey) {
+		LongAdder count = sent.get(routingKey);
+		return count == null ? 0 : count.sum();
+	}
+}
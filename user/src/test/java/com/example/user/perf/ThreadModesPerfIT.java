@@ -0,0 +1,141 @@
+package com.example.user.perf;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import com.example.perf.ClosedLoad;
+import com.example.perf.LatencyReport;
+import com.example.perf.PerfBaseline;
+import com.example.user.UserApplication;
+import com.example.user.repository.UserRepository;
+import com.github.fppt.jedismock.RedisServer;
+
+/**
+ * Throughput of /rest/userByEmail at high concurrency when MySQL is slow, in the platform-thread
+ * and the virtual-thread mode (spring.threads.virtual.enabled), and the difference between them.
+ * Every UserRepository call is delayed by perf.injected-db-latency-ms (default 100) before it
+ * runs, like network latency to the database, so the delay does not hold a pooled connection.
+ * Every request looks up a new email, so each one misses the cache and waits for the repository.
+ *
+ * With platform threads throughput is capped near server.tomcat.threads.max / latency
+ * (200 / 100 ms = 2000/s) however many clients there are; with virtual threads it grows with the
+ * number of clients until CPU or the connection pool is the limit.
+ *
+ * Both modes run in this one test, one after the other under the same load, each in its own
+ * application context with the stand-ins and properties of {@link UserPerfSupport}. The comparison
+ * is printed and written to target/perf/user.userByEmail.slow-db.comparison.txt.
+ */
+class ThreadModesPerfIT {
+
+	@TestConfiguration
+	static class InjectedLatency {
+
+		@Bean
+		static BeanPostProcessor slowUserRepository() {
+			long latencyMillis = Long.getLong("perf.injected-db-latency-ms", 100);
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!(bean instanceof UserRepository)) {
+						return bean;
+					}
+					return Proxy.newProxyInstance(UserRepository.class.getClassLoader(), new Class<?>[] {UserRepository.class},
+						(proxy, method, args) -> {
+							if (method.getDeclaringClass() != Object.class) {
+								Thread.sleep(latencyMillis);
+							}
+							try {
+								return method.invoke(bean, args);
+							} catch (InvocationTargetException e) {
+								throw e.getCause();
+							}
+						});
+				}
+			};
+		}
+	}
+
+	@Test
+	void lookupThroughputWithSlowDatabase() throws Exception {
+		LatencyReport platform = lookups("platform", false);
+		LatencyReport virtual = lookups("virtual", true);
+
+		String comparison = String.format("user.userByEmail.slow-db: virtual vs. platform threads: throughput x%.2f "
+				+ "(%.1f/s vs. %.1f/s), p50 %+.1f ms (%.1f vs. %.1f), p99 %+.1f ms (%.1f vs. %.1f)",
+			virtual.achievedRate() / platform.achievedRate(), virtual.achievedRate(), platform.achievedRate(),
+			virtual.percentileMillis(50) - platform.percentileMillis(50), virtual.percentileMillis(50), platform.percentileMillis(50),
+			virtual.percentileMillis(99) - platform.percentileMillis(99), virtual.percentileMillis(99), platform.percentileMillis(99));
+		System.out.println(comparison);
+		Path out = Path.of("target/perf");
+		Files.createDirectories(out);
+		Files.writeString(out.resolve("user.userByEmail.slow-db.comparison.txt"), comparison + System.lineSeparator());
+
+		new PerfBaseline(Path.of("src/test/resources/perf-baseline.properties"))
+			.verify(List.of(platform, virtual), out);
+	}
+
+	/** Start the service in one thread mode, run the load against it and stop it again. */
+	private static LatencyReport lookups(String mode, boolean virtualThreads) throws Exception {
+		RedisServer redis = RedisServer.newRedisServer();
+		redis.start();
+		List<String> args = new ArrayList<>();
+		for (String property : UserPerfSupport.class.getAnnotation(SpringBootTest.class).properties()) {
+			args.add("--" + property);
+		}
+		args.add("--server.port=0");
+		args.add("--spring.threads.virtual.enabled=" + virtualThreads);
+		// Wait for a pooled connection as long as a request may take: when the machine runs out of CPU
+		// first, that shows up as latency rather than as requests failing after connection-timeout.
+		args.add("--spring.datasource.hikari.connection-timeout=30000");
+		args.add("--spring.data.redis.host=" + redis.getHost());
+		args.add("--spring.data.redis.port=" + redis.getBindPort());
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				UserApplication.class, UserPerfSupport.StandIns.class, InjectedLatency.class)
+				.initializers(ThreadModesPerfIT::excludeTestComponents)
+				.run(args.toArray(String[]::new))) {
+			String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/rest";
+			int clients = Integer.getInteger("perf.user.clients", 300);
+			try (ClosedLoad load = new ClosedLoad()) {
+				return load.run("user.userByEmail.slow-db." + mode, clients,
+					Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 10)),
+					Duration.ofSeconds(Long.getLong("perf.duration-seconds", 30)),
+					i -> HttpRequest.newBuilder(URI.create(base + "/userByEmail?email=new" + i + "%40example.com"))
+						.timeout(Duration.ofSeconds(30))
+						.build());
+			}
+		} finally {
+			redis.stop();
+		}
+	}
+
+	// The component scan of UserApplication also sees the test classes. As in a @SpringBootTest
+	// context, test configurations only apply where they are passed in explicitly.
+	private static void excludeTestComponents(ConfigurableApplicationContext context) {
+		context.getBeanFactory().registerSingleton("testComponentExcludeFilter", new TypeExcludeFilter() {
+			@Override
+			public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+				return metadataReader.getAnnotationMetadata().isAnnotated(TestComponent.class.getName());
+			}
+		});
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.user.perf;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import com.example.perf.LatencyReport;
+import com.example.perf.PerfBaseline;
+
+/**
+ * /rest/import throughput: imports of perf.user.import-rows new users (default 100000) as one CSV
+ * request each, run one after another. The report holds the time per import; rows/s is printed.
+ * An import counts as an error unless every row was created.
+ *
+ * Run with mvn -Pperf verify. Imports: -Dperf.user.import-runs (default 3), after one unrecorded
+ * warm-up import of a tenth of the rows.
+ */
+class UserImportPerfIT extends UserPerfSupport {
+
+	@Test
+	void importThroughput() throws Exception {
+		int rows = Integer.getInteger("perf.user.import-rows", 100_000);
+		int runs = Integer.getInteger("perf.user.import-runs", 3);
+		URI uri = URI.create("http://localhost:" + port + "/rest/import");
+		Histogram histogram = new Histogram(TimeUnit.MINUTES.toNanos(10), 3);
+		long errors = 0;
+		long elapsed = 0;
+		try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+			importCsv(client, uri, csv("warmup", rows / 10), rows / 10);
+			for (int run = 0; run < runs; run++) {
+				String body = csv("run" + run, rows);
+				long started = System.nanoTime();
+				if (!importCsv(client, uri, body, rows)) {
+					errors++;
+				}
+				long took = System.nanoTime() - started;
+				histogram.recordValue(took);
+				elapsed += took;
+			}
+		}
+
+		System.out.printf(Locale.ROOT, "[perf] user.import: %d rows per import, %.0f rows/s%n",
+			rows, (double) rows * runs / (elapsed / 1e9));
+		LatencyReport report = new LatencyReport("user.import", histogram, runs, errors, rows + " rows/import", elapsed);
+		new PerfBaseline(Path.of("src/test/resources/perf-baseline.properties"))
+			.verify(List.of(report), Path.of("target/perf"));
+	}
+
+	private static String csv(String prefix, int rows) {
+		StringBuilder csv = new StringBuilder(rows * 40).append("name,email\n");
+		for (int i = 0; i < rows; i++) {
+			csv.append("User ").append(i).append(',').append(prefix).append('-').append(i).append("@example.com\n");
+		}
+		return csv.toString();
+	}
+
+	private static boolean importCsv(HttpClient client, URI uri, String body, int rows) throws Exception {
+		HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+				.header("Content-Type", "text/csv")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.timeout(Duration.ofMinutes(10))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		return response.statusCode() == 200 && response.body().contains("\"created\":" + rows + ",");
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.user.perf;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.perf.LatencyReport;
+import com.example.perf.OpenLoad;
+import com.example.perf.PerfBaseline;
+import com.example.user.config.RabbitMQConfig;
+
+/**
+ * Latency of /rest/add and /rest/userByEmail under open-model load, against the stand-ins of
+ * {@link UserPerfSupport}.
+ *
+ * Run with mvn -Pperf verify. Rates and durations: -Dperf.user.add-rate, -Dperf.user.lookup-rate
+ * (requests/s), -Dperf.warmup-seconds, -Dperf.duration-seconds.
+ */
+class UserPerfIT extends UserPerfSupport {
+
+	@Autowired
+	private StubRabbitTemplate rabbitTemplate;
+
+	@Test
+	void signupAndLookupLatency() throws Exception {
+		String base = "http://localhost:" + port + "/rest";
+		Duration warmup = Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 10));
+		Duration duration = Duration.ofSeconds(Long.getLong("perf.duration-seconds", 30));
+		LatencyReport add;
+		LatencyReport lookup;
+		try (OpenLoad load = new OpenLoad()) {
+			// Every request registers a new email: user0@example.com, user1@example.com, ...
+			add = load.run("user.add", Double.parseDouble(System.getProperty("perf.user.add-rate", "100")),
+				warmup, duration, i -> HttpRequest.newBuilder(URI.create(base + "/add?name=User" + i + "&email=user" + i + "%40example.com"))
+					.POST(HttpRequest.BodyPublishers.noBody())
+					.timeout(Duration.ofSeconds(10))
+					.build());
+
+			// 90% of lookups go to 100 hot users, 10% are spread over every registered user.
+			long registered = add.getRequests();
+			lookup = load.run("user.userByEmail", Double.parseDouble(System.getProperty("perf.user.lookup-rate", "250")),
+				warmup, duration, i -> {
+					long user = i % 10 == 0 ? (i * 7919) % registered : i % 100;
+					return HttpRequest.newBuilder(URI.create(base + "/userByEmail?email=user" + user + "%40example.com"))
+						.timeout(Duration.ofSeconds(10))
+						.build();
+				});
+		}
+
+		new PerfBaseline(Path.of("src/test/resources/perf-baseline.properties"))
+			.verify(List.of(add, lookup), Path.of("target/perf"));
+		assertTrue(rabbitTemplate.sent(RabbitMQConfig.ROUTING_KEY) > 0, "OutboxRelay published no user.created events");
+	}
+}
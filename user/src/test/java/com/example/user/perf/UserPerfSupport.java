@@ -0,0 +1,79 @@
+package com.example.user.perf;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.AfterAll;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.github.fppt.jedismock.RedisServer;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+
+/**
+ * Runs the user service in-process against stand-ins: H2 (MySQL mode) for MySQL, an in-JVM Redis
+ * server (jedis-mock) for the L2 cache and its invalidation pub/sub, and {@link StubRabbitTemplate}
+ * for RabbitMQ. Each test class gets its own context and Redis server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:perf;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"logging.level.org.springframework.web=INFO"
+})
+@Import(UserPerfSupport.StandIns.class)
+@DirtiesContext
+abstract class UserPerfSupport {
+
+	private static RedisServer redis;
+
+	@LocalServerPort
+	protected int port;
+
+	@TestConfiguration
+	static class StandIns {
+
+		@Bean
+		@Primary
+		StubRabbitTemplate stubRabbitTemplate(ConnectionFactory connectionFactory) {
+			return new StubRabbitTemplate(connectionFactory);
+		}
+
+		// jedis-mock speaks RESP2 only.
+		@Bean
+		LettuceClientConfigurationBuilderCustomizer resp2() {
+			return builder -> builder.clientOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build());
+		}
+	}
+
+	@DynamicPropertySource
+	static void redisProperties(DynamicPropertyRegistry registry) throws IOException {
+		redis = RedisServer.newRedisServer();
+		redis.start();
+		RedisServer server = redis;
+		registry.add("spring.data.redis.host", server::getHost);
+		registry.add("spring.data.redis.port", server::getBindPort);
+	}
+
+	@AfterAll
+	static void stopRedis() throws IOException {
+		if (redis != null) {
+			redis.stop();
+			redis = null;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.user.service;
+
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.user.event.UserEventPublisher;
+import com.example.user.repository.OutboxEventRepository;
+import com.example.user.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * JPA slice on H2 in MySQL mode with the services that write users. Tests run without a
+ * surrounding test transaction, so every service call commits (and fails) as it does in production;
+ * the tables are emptied after each test. UserTableVersion is a mock, so no Redis is needed.
+ */
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:services;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ UserRegistrationService.class, UserEventPublisher.class, ServiceJpaSupport.Beans.class })
+abstract class ServiceJpaSupport {
+
+	@Autowired
+	protected UserRepository userRepository;
+
+	@Autowired
+	protected OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	protected UserRegistrationService userRegistrationService;
+
+	@Autowired
+	protected UserEventPublisher eventPublisher;
+
+	@Autowired
+	protected UserTableVersion userTableVersion;
+
+	@TestConfiguration
+	static class Beans {
+
+		@Bean
+		ObjectMapper objectMapper() {
+			return new ObjectMapper();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		UserTableVersion userTableVersion() {
+			return mock(UserTableVersion.class);
+		}
+	}
+
+	@AfterEach
+	void deleteAll() {
+		outboxEventRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+	}
+}
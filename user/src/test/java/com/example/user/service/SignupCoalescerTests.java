@@ -0,0 +1,67 @@
+package com.example.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.user.repository.UserRepository;
+import com.example.user.service.SignupCoalescer.Outcome;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SignupCoalescerTests extends ServiceJpaSupport {
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private AutowireCapableBeanFactory beanFactory;
+
+	// Another instance registers race@example.com after the IN query has run: the batch insert hits
+	// the unique constraint and only that signup may come back DUPLICATE.
+	@Test
+	void emailTakenAfterTheCheckFailsOnlyItsSignup() throws Exception {
+		AtomicBoolean raced = new AtomicBoolean();
+		UserRepository racing = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+				new Class<?>[] { UserRepository.class }, (proxy, method, args) -> {
+					Object result;
+					try {
+						result = method.invoke(userRepository, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+					if (method.getName().equals("findExistingEmails") && raced.compareAndSet(false, true)) {
+						userRegistrationService.register("Other Instance", "race@example.com");
+					}
+					return result;
+				});
+		SignupCoalescer coalescer = new SignupCoalescer(racing, eventPublisher, userRegistrationService,
+				new TransactionTemplate(transactionManager), userTableVersion, new SimpleMeterRegistry(),
+				true, 200, 200, 100);
+		beanFactory.autowireBean(coalescer);
+		coalescer.start();
+		try {
+			CompletableFuture<Outcome> first = coalescer.submit("First", "first@example.com");
+			CompletableFuture<Outcome> race = coalescer.submit("Race", "race@example.com");
+			CompletableFuture<Outcome> second = coalescer.submit("Second", "second@example.com");
+
+			assertEquals(Outcome.CREATED, first.get(10, TimeUnit.SECONDS));
+			assertEquals(Outcome.DUPLICATE, race.get(10, TimeUnit.SECONDS));
+			assertEquals(Outcome.CREATED, second.get(10, TimeUnit.SECONDS));
+		} finally {
+			coalescer.stop();
+		}
+		assertEquals(3, userRepository.count());
+		assertEquals(3, outboxEventRepository.count());
+	}
+}
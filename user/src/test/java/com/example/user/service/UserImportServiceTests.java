@@ -0,0 +1,65 @@
+package com.example.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.user.repository.UserRepository;
+import com.example.user.service.UserImportService.ImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class UserImportServiceTests extends ServiceJpaSupport {
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private AutowireCapableBeanFactory beanFactory;
+
+	// A signup registers race@example.com after the chunk's IN query: the chunk insert hits the
+	// unique constraint and is retried row by row, so only that row fails.
+	@Test
+	void emailTakenAfterTheCheckFailsOnlyItsRow() throws Exception {
+		AtomicBoolean raced = new AtomicBoolean();
+		UserRepository racing = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+				new Class<?>[] { UserRepository.class }, (proxy, method, args) -> {
+					Object result;
+					try {
+						result = method.invoke(userRepository, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+					if (method.getName().equals("findExistingEmails") && raced.compareAndSet(false, true)) {
+						userRegistrationService.register("Signup", "race@example.com");
+					}
+					return result;
+				});
+		UserImportService importService = new UserImportService(racing, eventPublisher,
+				mock(RegisteredEmailFilter.class), new TransactionTemplate(transactionManager), userTableVersion,
+				new ConcurrentMapCacheManager("userByEmail"), new ObjectMapper(), 1000);
+		beanFactory.autowireBean(importService);
+
+		String csv = "name,email\nFirst,first@example.com\nRace,race@example.com\nSecond,second@example.com\n";
+		ImportReport report = importService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(2, report.created());
+		assertEquals(1, report.failed());
+		assertEquals(UserImportService.STATUS_CREATED, report.rows().get(0).status());
+		assertEquals(UserImportService.STATUS_FAILED, report.rows().get(1).status());
+		assertEquals("race@example.com", report.rows().get(1).email());
+		assertEquals(UserImportService.STATUS_CREATED, report.rows().get(2).status());
+		assertEquals(3, userRepository.count());
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.example.user.entity.User;
+import com.example.user.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserLookupServiceTests {
+
+	@Test
+	void thunderingHerdIssuesOneQuery() throws Exception {
+		UserRepository repository = mock(UserRepository.class);
+		User user = new User();
+		user.setEmail("hot@example.com");
+		when(repository.findByEmail("hot@example.com")).thenAnswer(invocation -> {
+			Thread.sleep(200);
+			return Optional.of(user);
+		});
+		UserLookupService service = newService(repository);
+
+		int callers = 64;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(callers);
+		List<Future<Optional<User>>> results = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return service.findActiveByEmail("hot@example.com");
+			}));
+		}
+		start.countDown();
+		for (Future<Optional<User>> result : results) {
+			assertTrue(result.get().isPresent());
+		}
+		pool.shutdown();
+
+		verify(repository, times(1)).findByEmail("hot@example.com");
+	}
+
+	@Test
+	void unknownEmailIsCachedNegatively() {
+		UserRepository repository = mock(UserRepository.class);
+		when(repository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+		UserLookupService service = newService(repository);
+
+		for (int i = 0; i < 10; i++) {
+			assertEquals(Optional.empty(), service.findActiveByEmail("nobody@example.com"));
+		}
+
+		verify(repository, times(1)).findByEmail("nobody@example.com");
+	}
+
+	private static UserLookupService newService(UserRepository repository) {
+		return new UserLookupService(repository, new ConcurrentMapCacheManager(UserLookupService.CACHE_NAME),
+				Duration.ofMinutes(10), Duration.ofSeconds(30), 1.0, new SimpleMeterRegistry());
+	}
+}
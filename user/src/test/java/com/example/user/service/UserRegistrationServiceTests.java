@@ -0,0 +1,23 @@
+package com.example.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+class UserRegistrationServiceTests extends ServiceJpaSupport {
+
+	// The service is called directly, so RegisteredEmailFilter never sees the second signup and the
+	// unique constraint is the only thing that rejects it.
+	@Test
+	void duplicateEmailIsTranslated() {
+		userRegistrationService.register("Ada", "ada@example.com");
+
+		assertThrows(DataIntegrityViolationException.class,
+				() -> userRegistrationService.register("Ada Again", "ada@example.com"));
+
+		assertEquals(1, userRepository.count());
+		assertEquals(1, outboxEventRepository.count());
+	}
+}
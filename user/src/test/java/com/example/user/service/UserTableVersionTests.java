@@ -0,0 +1,120 @@
+package com.example.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.github.fppt.jedismock.operations.server.MockExecutor;
+import com.github.fppt.jedismock.server.ServiceOptions;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * UserTableVersion against an in-JVM Redis server (jedis-mock).
+ */
+class UserTableVersionTests {
+
+	/** Every client connection that sent a command. */
+	private final Set<Object> clients = ConcurrentHashMap.newKeySet();
+	private RedisServer redis;
+	private LettuceConnectionFactory connectionFactory;
+	private StringRedisTemplate redisTemplate;
+	private UserTableVersion version;
+
+	@BeforeEach
+	void start() throws Exception {
+		redis = RedisServer.newRedisServer().setOptions(ServiceOptions.withInterceptor((state, command, params) -> {
+			clients.add(state.owner());
+			return MockExecutor.proceed(state, command, params);
+		}));
+		redis.start();
+		// jedis-mock speaks RESP2 only.
+		connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redis.getHost(), redis.getBindPort()),
+			LettuceClientConfiguration.builder()
+				.clientOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build())
+				.build());
+		connectionFactory.afterPropertiesSet();
+		connectionFactory.start();
+		redisTemplate = new StringRedisTemplate(connectionFactory);
+		version = new UserTableVersion(redisTemplate, "user.table.version", Duration.ofDays(1), new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void stop() throws Exception {
+		connectionFactory.destroy();
+		redis.stop();
+	}
+
+	// Every reader of an empty hash tries to start the epoch; they must all end up with the same
+	// one, and on the shared connection rather than one connection each.
+	@Test
+	void concurrentColdReadersAgreeOnOneEpoch() throws Exception {
+		int readers = 200;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(readers);
+		List<Future<UserTableVersion.Watermark>> results = new ArrayList<>();
+		for (int i = 0; i < readers; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return version.current();
+			}));
+		}
+		start.countDown();
+		Set<String> etags = new HashSet<>();
+		for (Future<UserTableVersion.Watermark> result : results) {
+			UserTableVersion.Watermark watermark = result.get(30, TimeUnit.SECONDS);
+			assertNotNull(watermark);
+			etags.add(watermark.etag());
+		}
+		pool.shutdown();
+
+		assertEquals(1, etags.size());
+		assertEquals(1, clients.size());
+		String epoch = redisTemplate.<String, String>opsForHash().get("user.table.version", "epoch");
+		assertEquals(Long.toString(Long.parseLong(epoch), 36) + "-0", etags.iterator().next());
+	}
+
+	@Test
+	void changeMovesTheEtagWithinTheEpoch() {
+		UserTableVersion.Watermark before = version.current();
+		version.changed();
+		version.changed();
+		UserTableVersion.Watermark after = version.current();
+
+		assertNotEquals(before.etag(), after.etag());
+		assertEquals(before.etag().replaceAll("-0$", "-2"), after.etag());
+		assertNotNull(redisTemplate.getExpire("user.table.version"));
+	}
+
+	@Test
+	void bumpStartsAnEpochWhenThereIsNone() {
+		version.changed();
+
+		UserTableVersion.Watermark watermark = version.current();
+		assertNotNull(watermark);
+		assertEquals("1", watermark.etag().substring(watermark.etag().indexOf('-') + 1));
+	}
+}